@@ -0,0 +1,149 @@
+package com.alperez.samples.slider;
+
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.util.Log;
+import android.util.SparseIntArray;
+import android.view.Gravity;
+
+import com.alperez.samples.slider.activity.MyDrawerActivity;
+import com.alperez.widget.customlayout.SideSwipePanelLayout;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import androidx.core.app.FrameMetricsAggregator;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.rule.ActivityTestRule;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the frame times of the drawer animations for the two ways the content follows the
+ * drawer: translate and clip on the canvas (the default) against the translation of a hardware
+ * layer ({@link SideSwipePanelLayout#setContentLayerTranslationEnabled(boolean)}).
+ *
+ * <p>The results are reported to logcat and as instrumentation status, e.g. with
+ * {@code adb shell am instrument -w -r}. They are recorded for comparison across runs and
+ * devices, a single run does not pass or fail on them.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContentMotionFrameTimeTest {
+    private static final String TAG = "ContentMotionFrameTime";
+    private static final int CYCLES = 10;
+    private static final long SETTLE_TIMEOUT_MS = 5000;
+
+    @Rule
+    public final ActivityTestRule<MyDrawerActivity> mActivityRule = new ActivityTestRule<>(MyDrawerActivity.class, false, false);
+
+    @Test
+    public void recordFrameTimes() throws Exception {
+        // FrameMetrics are available from API 24
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N);
+
+        final FrameStats canvas = measure(false);
+        final FrameStats layer = measure(true);
+
+        final Bundle results = new Bundle();
+        canvas.report("canvas", results);
+        layer.report("layer", results);
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+
+        assertTrue("No frames recorded", canvas.count > 0 && layer.count > 0);
+    }
+
+    /**
+     * Opens and closes the drawer with the animation {@link #CYCLES} times and collects the
+     * durations of the frames.
+     */
+    private FrameStats measure(boolean layerTranslation) throws Exception {
+        final Intent intent = new Intent(InstrumentationRegistry.getTargetContext(), MyDrawerActivity.class)
+                .putExtra(MyDrawerActivity.ARG_GRAVITY, Gravity.LEFT)
+                .putExtra(MyDrawerActivity.ARG_FULL_SCREEN, true)
+                .putExtra(MyDrawerActivity.ARG_LAYER_TRANSLATION, layerTranslation);
+        final MyDrawerActivity activity = mActivityRule.launchActivity(intent);
+        final SideSwipePanelLayout layout = activity.findViewById(R.id.side_container_layout);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        final FrameMetricsAggregator aggregator = new FrameMetricsAggregator(FrameMetricsAggregator.TOTAL_DURATION);
+        aggregator.add(activity);
+        for (int i = 0; i < CYCLES; i++) {
+            moveDrawer(layout, true);
+            moveDrawer(layout, false);
+        }
+        final SparseIntArray[] metrics = aggregator.remove(activity);
+        aggregator.stop();
+        activity.finish();
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        return new FrameStats(metrics[FrameMetricsAggregator.TOTAL_INDEX]);
+    }
+
+    private static void moveDrawer(final SideSwipePanelLayout layout, final boolean open) throws InterruptedException {
+        final CountDownLatch settled = new CountDownLatch(1);
+        final SideSwipePanelLayout.DrawerListener listener = new SideSwipePanelLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerOpened() {
+                settled.countDown();
+            }
+
+            @Override
+            public void onDrawerClosed() {
+                settled.countDown();
+            }
+        };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            layout.addDrawerListener(listener);
+            if (open) {
+                layout.openDrawer(true);
+            } else {
+                layout.closeDrawer(true);
+            }
+        });
+        assertTrue("The drawer did not settle", settled.await(SETTLE_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> layout.removeDrawerListener(listener));
+    }
+
+    /**
+     * Mean and 90th percentile of a frame duration histogram with 1 ms buckets.
+     */
+    private static final class FrameStats {
+        final int count;
+        final float mean;
+        final int p90;
+
+        FrameStats(SparseIntArray histogram) {
+            int count = 0;
+            long total = 0;
+            for (int i = 0; histogram != null && i < histogram.size(); i++) {
+                count += histogram.valueAt(i);
+                total += (long) histogram.keyAt(i) * histogram.valueAt(i);
+            }
+            int p90 = 0;
+            for (int i = 0, seen = 0; histogram != null && i < histogram.size(); i++) {
+                seen += histogram.valueAt(i);
+                if (seen >= count * 0.9f) {
+                    p90 = histogram.keyAt(i);
+                    break;
+                }
+            }
+            this.count = count;
+            this.mean = (count == 0) ? 0 : (float) total / count;
+            this.p90 = p90;
+        }
+
+        void report(String name, Bundle results) {
+            Log.i(TAG, name + ": " + count + " frames, mean " + mean + " ms, p90 " + p90 + " ms");
+            results.putInt(name + "_frames", count);
+            results.putFloat(name + "_mean_ms", mean);
+            results.putInt(name + "_p90_ms", p90);
+        }
+    }
+}
@@ -25,6 +25,7 @@ public class LauncherActivity extends AppCompatActivity {
         findViewById(R.id.btn2).setOnClickListener(this::onClick);
         findViewById(R.id.btn3).setOnClickListener(this::onClick);
         findViewById(R.id.btn4).setOnClickListener(this::onClick);
+        findViewById(R.id.btn5).setOnClickListener(this::onClick);
     }
 
 
@@ -53,6 +54,12 @@ public class LauncherActivity extends AppCompatActivity {
                 extras.putInt(MyDrawerActivity.ARG_GRAVITY, Gravity.RIGHT);
                 extras.putBoolean(MyDrawerActivity.ARG_FULL_SCREEN, true);
                 break;
+            case R.id.btn5:
+                actCls = MyDrawerActivity.class;
+                extras.putInt(MyDrawerActivity.ARG_GRAVITY, Gravity.LEFT);
+                extras.putBoolean(MyDrawerActivity.ARG_FULL_SCREEN, true);
+                extras.putBoolean(MyDrawerActivity.ARG_LAYER_TRANSLATION, true);
+                break;
             default:
                 actCls = null;
         }
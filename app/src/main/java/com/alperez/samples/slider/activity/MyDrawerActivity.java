@@ -22,6 +22,7 @@ public class MyDrawerActivity extends AppCompatActivity {
     public static final String ARG_GRAVITY = "gravity";
     public static final String ARG_FULL_SCREEN = "full_screen";
     public static final String ARG_SCREEN_TITLE = "scr_title";
+    public static final String ARG_LAYER_TRANSLATION = "layer_translation";
 
 
     private final String dataItems[] = {"Line 1", "Line 2", "Line 3", "Line 4", "Line 5", "Line 6", "Line 7", "Line 8", "Line 9", "Line 10", "Line 11", "Line 12", "Line 13", "Line 14", "Line 15", "Line 16", "Line 17", "Line 18", "Line 19", "Line 20", "Line 21", "Line 22", "Line 23", "Line 24", "Line 25", "Line 26", "Line 27", "Line 28", "Line 29", "Line 30"};
@@ -38,6 +39,7 @@ public class MyDrawerActivity extends AppCompatActivity {
         vSlideContainer = (SideSwipePanelLayout) findViewById(R.id.side_container_layout);
         vSlideContainer.setDrawerLockMode(SideSwipePanelLayout.LOCK_MODE_UNLOCKED);
         if (getIntent().getBooleanExtra(ARG_FULL_SCREEN, false)) vSlideContainer.setMinDrawerMargin(0);
+        vSlideContainer.setContentLayerTranslationEnabled(getIntent().getBooleanExtra(ARG_LAYER_TRANSLATION, false));
 
         ((ListView) findViewById(R.id.list)).setAdapter(new MyAdapter(this, R.layout.list_item, dataItems));
     }
@@ -1,37 +1,52 @@
 package com.alperez.widget.customlayout;
 
 import android.annotation.SuppressLint;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
 import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.os.SystemClock;
 import android.util.AttributeSet;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.Gravity;
 import android.view.InputDevice;
 import android.view.KeyEvent;
+import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityEvent;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
 
 import com.alperez.samples.slider.R;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
-import java.util.List;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
+import androidx.annotation.LayoutRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.os.TraceCompat;
 import androidx.core.view.GravityCompat;
+import androidx.core.view.NestedScrollingParent2;
+import androidx.core.view.NestedScrollingParentHelper;
 import androidx.core.view.ViewCompat;
 import androidx.customview.view.AbsSavedState;
 import androidx.customview.widget.ViewDragHelper;
@@ -44,7 +59,7 @@ import static androidx.customview.widget.ViewDragHelper.STATE_SETTLING;
  * Created by stanislav.perchenko on 30-01-2019
  */
 @SuppressLint("RtlHardcoded")
-public class SideSwipePanelLayout extends ViewGroup {
+public class SideSwipePanelLayout extends ViewGroup implements NestedScrollingParent2 {
     @IntDef({STATE_IDLE, STATE_DRAGGING, STATE_SETTLING})
     @Retention(RetentionPolicy.SOURCE)
     public @interface DrawerState {}
@@ -53,6 +68,22 @@ public class SideSwipePanelLayout extends ViewGroup {
     @Retention(RetentionPolicy.SOURCE)
     public  @interface LockMode {}
 
+    @IntDef({SCRIM_MODE_CANVAS, SCRIM_MODE_OVERLAY, SCRIM_MODE_NONE})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface ScrimMode {}
+
+    @IntDef({SWIPE_ZONE_EDGE, SWIPE_ZONE_FULL})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface SwipeZone {}
+
+    @IntDef({SLIDE_DISPATCH_IMMEDIATE, SLIDE_DISPATCH_VSYNC})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface SlideDispatchMode {}
+
+    @IntDef({CONTENT_MOTION_CLIP, CONTENT_MOTION_PUSH, CONTENT_MOTION_SCALE})
+    @Retention(RetentionPolicy.SOURCE)
+    private @interface ContentMotion {}
+
     @IntDef(value = {Gravity.LEFT, Gravity.RIGHT, GravityCompat.START, GravityCompat.END}, flag = true)
     @Retention(RetentionPolicy.SOURCE)
     private @interface EdgeGravity {}
@@ -79,6 +110,51 @@ public class SideSwipePanelLayout extends ViewGroup {
      */
     public static final int LOCK_MODE_UNDEFINED = 3;
 
+    /**
+     * The scrim is painted over the visible part of the content in {@link #drawChild(Canvas, View, long)}.
+     */
+    public static final int SCRIM_MODE_CANVAS = 0;
+
+    /**
+     * The scrim is a drawable in this layout's overlay. Only its alpha and bounds are updated when
+     * the drawer moves, so neither the content nor the layout's children are redrawn for the scrim.
+     */
+    public static final int SCRIM_MODE_OVERLAY = 1;
+
+    /**
+     * No scrim at all. Useful when the content is pushed out anyway.
+     */
+    public static final int SCRIM_MODE_NONE = 2;
+
+    /**
+     * A drawer can only be swiped out from the edge tracked by the ViewDragHelper.
+     */
+    public static final int SWIPE_ZONE_EDGE = 0;
+
+    /**
+     * A drawer can be swiped out from anywhere on the content.
+     */
+    public static final int SWIPE_ZONE_FULL = 1;
+
+    /**
+     * {@link DrawerListener#onDrawerSlide(float)} is called synchronously on every offset change.
+     */
+    public static final int SLIDE_DISPATCH_IMMEDIATE = 0;
+
+    /**
+     * {@link DrawerListener#onDrawerSlide(float)} calls are coalesced to at most one per frame,
+     * delivered from a Choreographer frame callback with the latest offset. The other callbacks
+     * stay exact and are always preceded by the pending slide callback.
+     */
+    public static final int SLIDE_DISPATCH_VSYNC = 1;
+
+
+    /*
+     * Values of the contentMotion attribute
+     */
+    private static final int CONTENT_MOTION_CLIP = 0;
+    private static final int CONTENT_MOTION_PUSH = 1;
+    private static final int CONTENT_MOTION_SCALE = 2;
 
     private static final int MIN_DRAWER_DEFAULT_MARGIN = 64; // dp
 
@@ -103,6 +179,26 @@ public class SideSwipePanelLayout extends ViewGroup {
 
     private static final float TOUCH_SLOP_SENSITIVITY = 1f;
 
+    /**
+     * Set to true to see the layout in systrace/Perfetto. All tracing is compiled out when false.
+     */
+    private static final boolean TRACE = false;
+
+    private static final String TRACE_MEASURE = "SideSwipePanelLayout#onMeasure";
+    private static final String TRACE_LAYOUT = "SideSwipePanelLayout#onLayout";
+    private static final String TRACE_DRAW_CHILD = "SideSwipePanelLayout#drawChild";
+    private static final String TRACE_INTERCEPT = "SideSwipePanelLayout#onInterceptTouchEvent";
+    private static final String TRACE_TOUCH = "SideSwipePanelLayout#onTouchEvent";
+    private static final String TRACE_COMPUTE_SCROLL = "SideSwipePanelLayout#computeScroll";
+    private static final String TRACE_DISPATCH_SLIDE = "SideSwipePanelLayout#dispatchOnDrawerSlide";
+    /*
+     * Zero-length markers of a gesture. TraceCompat has no async sections, which could span it.
+     */
+    private static final String TRACE_GESTURE_DOWN = "SideSwipePanelLayout: ACTION_DOWN";
+    private static final String TRACE_GESTURE_IDLE = "SideSwipePanelLayout: STATE_IDLE";
+
+    private static final ListenerRecord[] EMPTY_LISTENERS = new ListenerRecord[0];
+
     static final int[] LAYOUT_ATTRS = new int[] {
             android.R.attr.layout_gravity
     };
@@ -112,6 +208,8 @@ public class SideSwipePanelLayout extends ViewGroup {
     private int mScrimColor = DEFAULT_SCRIM_COLOR;
     private float mScrimOpacity;
     private Paint mScrimPaint = new Paint();
+    private @ScrimMode int mScrimMode = SCRIM_MODE_CANVAS;
+    private ColorDrawable mScrimDrawable;
 
     private final ViewDragHelper mDragger;
     private final ViewDragCallback mDraggerCallback;
@@ -123,14 +221,213 @@ public class SideSwipePanelLayout extends ViewGroup {
 
     private boolean mChildrenCanceledTouch;
 
-    private List<DrawerListener> mListeners;
+    /**
+     * Copy-on-write snapshot of the registered listeners. A new array is created only by
+     * add/remove, so dispatching never allocates and is safe against add/remove from a callback.
+     */
+    private ListenerRecord[] mListeners = EMPTY_LISTENERS;
+
+    private @SlideDispatchMode int mSlideDispatchMode = SLIDE_DISPATCH_IMMEDIATE;
+    private boolean mSlideDispatchPending;
+    private final Choreographer.FrameCallback mSlideDispatchCallback = frameTimeNanos -> {
+        if (mSlideDispatchPending) {
+            mSlideDispatchPending = false;
+            if (hasDrawer()) {
+                dispatchOnDrawerSlide(getDrawerViewOffset());
+            }
+        }
+    };
+
+    /**
+     * LayoutParams of the drawer view, cached to avoid the cast on every frame.
+     * See {@link #getDrawerLayoutParams()}.
+     */
+    private LayoutParams mDrawerLp;
+
+    /**
+     * Absolute gravity of the drawer view resolved according to the current layout direction,
+     * or {@link Gravity#NO_GRAVITY} if it must be resolved again. It is invalidated only by a
+     * layout direction change, a new drawer view or its LayoutParams.gravity change.
+     */
+    private int mDrawerAbsGravity = Gravity.NO_GRAVITY;
+
+    /**
+     * The drawer's LayoutParams.gravity value the {@link #mDrawerAbsGravity} was resolved from.
+     */
+    private int mDrawerGravity = Gravity.NO_GRAVITY;
+
+    /*
+     * Inputs of the last measure/layout of the content. A child is measured or laid out again
+     * only if its inputs have changed or it has requested a layout by itself. The same inputs of
+     * the drawers are kept in their LayoutParams.
+     */
+    private int mContentWidthSpec = -1;
+    private int mContentHeightSpec = -1;
+
+    /*
+     * Measure specs of the last onMeasure() to measure the drawer outside of a layout pass
+     */
+    private int mWidthMeasureSpec;
+    private int mHeightMeasureSpec;
+
+    /**
+     * Child index of the active drawer - the only one which can be out of its closed position.
+     * All single-drawer logic works with this drawer, so one more drawer on the opposite edge
+     * costs nothing per frame. See {@link #activateDrawer(int)}.
+     */
+    private int mActiveDrawer = 1;
+
+    /**
+     * Creates the drawer view on demand. Not null only while the lazy drawer is not created yet.
+     */
+    private DrawerFactory mDrawerFactory;
+    private int mLazyDrawerGravity = GravityCompat.START;
+    private OnDrawerReadyListener mDrawerReadyListener;
+    private final MessageQueue.IdleHandler mDrawerIdleCreator = () -> {
+        // Only inflates. The drawer is measured and laid out when it is about to become visible.
+        if (mDrawerFactory != null) {
+            createLazyDrawer();
+        }
+        return false;
+    };
+
+    private int mContentMeasureCount;
+    private int mContentLayoutCount;
+    private int mDrawerMeasureCount;
+    private int mSkippedContentDrawCount;
+    private int mScrimUpdateCount;
+
+    private SettlePolicy mSettlePolicy = new DefaultSettlePolicy();
+
+    /**
+     * Offsets the drawer can rest at, sorted ascending. Always starts with 0 and ends with 1.
+     * Built from the detents for the width of the active drawer, see {@link #getRestOffsets()}.
+     */
+    private float[] mRestOffsets = {0f, 1f};
+    private int mRestOffsetsWidth = -1;
+
+    /*
+     * Detents set by setDrawerDetents(). Pixel detents depend on the drawer width.
+     */
+    private float[] mDetentFractions = {};
+    private int[] mDetentPixels = {};
+
+    /**
+     * Detent the drawer has settled at the last time or -1
+     */
+    private int mSettledDetentIndex = 0;
+
+    /**
+     * Detent to be applied by the first measure, or -1
+     */
+    private int mPendingDetentIndex = -1;
+
+    /*
+     * Drawer offset animation driven by computeScroll(). It is used instead of the ViewDragHelper
+     * settling when the settle policy asks for its own duration and interpolator.
+     */
+    private boolean mOffsetAnimRunning;
+    private float mOffsetAnimFrom;
+    private float mOffsetAnimTo;
+    private long mOffsetAnimStartTime;
+    private int mOffsetAnimDuration;
+    private Interpolator mOffsetAnimInterpolator;
+
+    /**
+     * Not null only while a {@link DrawerMetricsListener} is set.
+     */
+    private GestureMetricsTracker mMetricsTracker;
 
     private float mInitialMotionX;
     private float mInitialMotionY;
 
+    /*
+     * Swipe zone, see setSwipeZoneWidth() and setSwipeZoneFraction(). mSwipeZoneEdges are the
+     * edges (Gravity.LEFT, Gravity.RIGHT) whose drawer the current gesture may still swipe out,
+     * 0 once the direction of the gesture is decided.
+     */
+    private int mSwipeZoneWidth;
+    private float mSwipeZoneFraction;
+    private int mSwipeZoneEdges;
+    private int mSwipeZonePointerId;
+
+    /*
+     * Nested scrolling. Horizontal over-scroll of a child scroller drags the drawer directly,
+     * without intercepting the child's touch stream.
+     */
+    private final NestedScrollingParentHelper mNestedScrollingHelper = new NestedScrollingParentHelper(this);
+    private boolean mNestedScrollAccepted;
+    private boolean mNestedDragging;
+    private float mNestedFlingVelocity;
+
+    /*
+     * The drawer scrubbed by a back gesture, see startBackProgress()
+     */
+    private boolean mBackProgressActive;
+    private float mBackStartOffset;
+    private float mBackTargetOffset;
+    private OnBackHandlingChangedListener mBackHandlingListener;
+    private boolean mHandlesBack;
+
     private Rect mChildHitRect;
     private Matrix mChildInvertedMatrix;
 
+    /**
+     * When set, the content view is moved with render properties on a hardware layer instead of
+     * translating and clipping the canvas in {@link #drawChild(Canvas, View, long)}.
+     */
+    private ContentTransformer mContentTransformer;
+
+    /*
+     * Docked mode, see setDockedMinWidth(). mDockedInset is the width the content has been
+     * measured without, i.e. the visible width of the drawer resting docked beside it.
+     */
+    private int mDockedMinWidth;
+    private boolean mDocked;
+    private int mDockedInset;
+
+    /*
+     * Drawer snapshot mode, see setDrawerSnapshotEnabled(). mSnapshotView is the drawer which
+     * currently renders into the layer, mSnapshotCallbacksRegistered tells whether
+     * mSnapshotTrimCallbacks is registered with the application context. mSnapshotTrimmed
+     * blocks a new layer for the rest of a motion, in which the memory has been trimmed.
+     */
+    private boolean mDrawerSnapshotEnabled;
+    private View mSnapshotView;
+    private boolean mSnapshotCallbacksRegistered;
+    private boolean mSnapshotTrimmed;
+    /*
+     * Low-latency drag, see setLowLatencyDragEnabled(). mPredictedDx is how far (px) the drawer
+     * has been moved ahead of the position known to the ViewDragHelper. mLastDragX and
+     * mLastDragTime are the latest sample of the previous event of the dragging pointer,
+     * mLastDragTime is 0 until the first move of a drag.
+     */
+    private boolean mLowLatencyDragEnabled;
+    private int mPredictedDx;
+    private float mLastDragX;
+    private long mLastDragTime;
+    private float mFramePeriodMs;
+    private boolean mUnbufferedDispatchRequested;
+
+    private final ComponentCallbacks2 mSnapshotTrimCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            // The UI_HIDDEN and the background levels come when there is no motion and no layer
+            if (level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+                trimDrawerSnapshot();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            trimDrawerSnapshot();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+    };
+
     /**
      * Listener for monitoring events about drawer.
      */
@@ -183,73 +480,1132 @@ public class SideSwipePanelLayout extends ViewGroup {
         }
     }
 
-    public SideSwipePanelLayout(@NonNull Context context) {
-        this(context, null);
+    /**
+     * Listener which also receives the detent of the drawer.
+     * See {@link #setDrawerDetents(float[], int[])}.
+     */
+    public interface DetentDrawerListener extends DrawerListener {
+        /**
+         * Called instead of {@link #onDrawerSlide(float)} when a drawer's position changes.
+         * @param slideOffset The new offset of this drawer within its range, from 0-1
+         * @param detentIndex Index of the highest detent the drawer has reached. 0 is the
+         *                    closed drawer, the last one is the fully open drawer.
+         */
+        void onDrawerSlide(float slideOffset, int detentIndex);
+
+        /**
+         * Called when the drawer has settled at a detent, including the closed and open ones.
+         */
+        void onDrawerDetentSettled(int detentIndex);
     }
 
-    public SideSwipePanelLayout(@NonNull Context context, @Nullable AttributeSet attrs) {
-        this(context, attrs, 0);
+    /**
+     * Listener for the changes of the back navigation handling by the layout. Lets a back
+     * callback be enabled only while there is a drawer to close.
+     */
+    public interface OnBackHandlingChangedListener {
+        /**
+         * @param handlesBack true if the drawer is out and the back navigation should close it
+         */
+        void onBackHandlingChanged(boolean handlesBack);
     }
 
+    /**
+     * Creates the drawer view for the lazy drawer mode.
+     */
+    public interface DrawerFactory {
+        /**
+         * @param parent The layout the drawer view will be added to. Must not be attached by
+         *               this method.
+         * @return The new drawer view
+         */
+        @NonNull
+        View createDrawerView(@NonNull SideSwipePanelLayout parent);
+    }
 
-    public SideSwipePanelLayout(@NonNull Context context, @Nullable AttributeSet attrs, int defStyle) {
-        super(context, attrs, defStyle);
-        setDescendantFocusability(ViewGroup.FOCUS_AFTER_DESCENDANTS);
-        final float density = getResources().getDisplayMetrics().density;
+    /**
+     * Listener for the lazy drawer creation.
+     */
+    public interface OnDrawerReadyListener {
+        /**
+         * Called when the lazy drawer view has been created and added to the layout.
+         */
+        void onDrawerReady(@NonNull View drawerView);
+    }
 
+    /**
+     * Strategy of the content motion following the drawer. It must only use render properties of
+     * the content view (translation, scale, alpha, etc.) and never change its layout.
+     */
+    public interface ContentTransformer {
+        /**
+         * Called every time the drawer moves.
+         *
+         * @param content The content view
+         * @param pushDistance The distance in pixels the content has to be translated by to stay
+         *                     next to the drawer edge. Positive for the left drawer, negative for
+         *                     the right one.
+         * @param slideOffset The drawer offset, from 0-1
+         */
+        void transformContent(@NonNull View content, float pushDistance, float slideOffset);
 
-        TypedArray a = context.getResources().obtainAttributes(attrs, R.styleable.SideSwipePanelLayout);
-        mMinDrawerMargin = a.getDimensionPixelSize(R.styleable.SideSwipePanelLayout_minDrawerMargin, (int) (MIN_DRAWER_DEFAULT_MARGIN * density + 0.5f));
-        a.recycle();
+        /**
+         * Resets all properties of the content view changed by this transformer.
+         */
+        void resetContent(@NonNull View content);
+    }
 
+    /**
+     * Moves the content by a given ratio of the drawer travel. Ratio 1 pushes the content out by
+     * the drawer, a ratio in between makes a parallax and 0 keeps the content in place under the
+     * drawer.
+     */
+    public static class PushContentTransformer implements ContentTransformer {
+        private final float mRatio;
 
-        final float minVel = MIN_FLING_VELOCITY * density;
-        mDraggerCallback = new ViewDragCallback();
-        mDragger = ViewDragHelper.create(this, TOUCH_SLOP_SENSITIVITY, mDraggerCallback);
-        mDragger.setEdgeTrackingEnabled(0);
-        mDragger.setMinVelocity(minVel);
-        mDraggerCallback.setDragger(mDragger);
+        public PushContentTransformer(float ratio) {
+            mRatio = ratio;
+        }
+
+        public float getRatio() {
+            return mRatio;
+        }
+
+        @Override
+        public void transformContent(@NonNull View content, float pushDistance, float slideOffset) {
+            content.setTranslationX(pushDistance * mRatio);
+        }
+
+        @Override
+        public void resetContent(@NonNull View content) {
+            content.setTranslationX(0);
+        }
+    }
+
+    /**
+     * Pushes the content out by the drawer and scales it down and fades it as the drawer opens.
+     */
+    public static class ScaleContentTransformer implements ContentTransformer {
+        private final float mMinScale;
+        private final float mMinAlpha;
+
+        /**
+         * @param minScale Scale of the content when the drawer is fully open
+         * @param minAlpha Alpha of the content when the drawer is fully open
+         */
+        public ScaleContentTransformer(float minScale, float minAlpha) {
+            mMinScale = minScale;
+            mMinAlpha = minAlpha;
+        }
+
+        @Override
+        public void transformContent(@NonNull View content, float pushDistance, float slideOffset) {
+            final float scale = 1f - (1f - mMinScale) * slideOffset;
+            // Keep the edge next to the drawer in place
+            content.setPivotX((pushDistance >= 0) ? 0 : content.getWidth());
+            content.setPivotY(content.getHeight() / 2f);
+            content.setTranslationX(pushDistance);
+            content.setScaleX(scale);
+            content.setScaleY(scale);
+            content.setAlpha(1f - (1f - mMinAlpha) * slideOffset);
+        }
+
+        @Override
+        public void resetContent(@NonNull View content) {
+            content.setTranslationX(0);
+            content.setScaleX(1f);
+            content.setScaleY(1f);
+            content.setAlpha(1f);
+        }
+    }
+
+    /**
+     * Listener for performance metrics of drawer gestures.
+     */
+    public interface DrawerMetricsListener {
+        /**
+         * Called when the drawer becomes idle after a drag or a settle.
+         *
+         * @param metrics Metrics of the finished gesture. The instance is reused for the next
+         *                gestures, so it must not be kept after this call returns.
+         */
+        void onDrawerGestureMetrics(@NonNull GestureMetrics metrics);
+    }
+
+    /**
+     * Performance metrics of one drawer gesture, i.e. the drawer motion between two
+     * {@link ViewDragHelper#STATE_IDLE} states.
+     */
+    public static final class GestureMetrics {
+        int frameCount;
+        int droppedFrameCount;
+        long releaseToIdleMillis;
+        long peakDrawChildNanos;
+        int requestLayoutCount;
+        float finalOffset;
+
+        void reset() {
+            frameCount = 0;
+            droppedFrameCount = 0;
+            releaseToIdleMillis = -1;
+            peakDrawChildNanos = 0;
+            requestLayoutCount = 0;
+            finalOffset = 0;
+        }
+
+        /**
+         * @return Number of frames rendered during the gesture
+         */
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * @return Number of frames skipped during the gesture according to the display refresh rate
+         */
+        public int getDroppedFrameCount() {
+            return droppedFrameCount;
+        }
+
+        /**
+         * @return Time from the touch release to the idle state in milliseconds, or -1 if the
+         *         gesture was not finished by a touch release (i.e. programmatic open/close)
+         */
+        public long getReleaseToIdleMillis() {
+            return releaseToIdleMillis;
+        }
+
+        /**
+         * @return The longest drawChild() call of the layout during the gesture, in nanoseconds
+         */
+        public long getPeakDrawChildNanos() {
+            return peakDrawChildNanos;
+        }
+
+        /**
+         * @return Number of requestLayout() calls on the layout during the gesture
+         */
+        public int getRequestLayoutCount() {
+            return requestLayoutCount;
+        }
+
+        /**
+         * @return The drawer offset the gesture ended with, from 0-1
+         */
+        public float getFinalOffset() {
+            return finalOffset;
+        }
+    }
+
+    /**
+     * Decides where and how the drawer settles after the user releases it.
+     */
+    public interface SettlePolicy {
+        /**
+         * Called when the drawer is released to choose the offset it will settle at.
+         *
+         * @param offset The offset of the drawer at the moment of release, from 0-1
+         * @param velocity The release velocity in pixels per second. Positive values are
+         *                 directed to open the drawer, negative - to close it.
+         * @param drawerWidth Width of the drawer in pixels
+         * @param restOffsets Offsets the drawer can rest at, sorted ascending. The first one is
+         *                    always 0 and the last one is always 1.
+         * @return One of the restOffsets
+         */
+        float computeTargetOffset(float offset, float velocity, int drawerWidth, @NonNull float[] restOffsets);
+
+        /**
+         * @return Duration of the settle in milliseconds, or 0 to let the ViewDragHelper
+         *         settle the drawer with its own duration heuristic.
+         */
+        int computeSettleDuration(float fromOffset, float toOffset, float velocity, int drawerWidth);
+
+        /**
+         * @return Interpolator for the settle with a duration returned by {@link #computeSettleDuration}.
+         *         Null stands for a linear motion.
+         */
+        @Nullable
+        Interpolator getInterpolator();
+    }
+
+    /**
+     * The default settle policy. Any fling (as detected by the ViewDragHelper) moves the drawer
+     * to the next rest offset in the direction of the fling, otherwise the drawer settles at the
+     * nearest rest offset. The motion is left to the ViewDragHelper.
+     */
+    public static class DefaultSettlePolicy implements SettlePolicy {
+        @Override
+        public float computeTargetOffset(float offset, float velocity, int drawerWidth, @NonNull float[] restOffsets) {
+            if (velocity > 0) {
+                return DrawerMath.nextRestOffset(offset, restOffsets);
+            } else if (velocity < 0) {
+                return DrawerMath.previousRestOffset(offset, restOffsets);
+            } else {
+                return DrawerMath.nearestRestOffset(offset, restOffsets);
+            }
+        }
+
+        @Override
+        public int computeSettleDuration(float fromOffset, float toOffset, float velocity, int drawerWidth) {
+            return 0;
+        }
+
+        @Nullable
+        @Override
+        public Interpolator getInterpolator() {
+            return null;
+        }
+    }
+
+    /**
+     * Physics-like settle policy. The drawer position is projected as if it kept decelerating
+     * after release and settles at the rest offset nearest to the projected position, but never
+     * against the direction of a fling. The settle duration follows the release velocity and is
+     * kept within the given limits, so fast flings settle in fewer frames and slow releases
+     * never over-animate.
+     */
+    public static class FlingSettlePolicy implements SettlePolicy {
+        private static final int DEFAULT_VELOCITY_THRESHOLD = 800; // dips per second
+        private static final int DEFAULT_DECELERATION = 8000; // dips per second^2
+        private static final int DEFAULT_MIN_DURATION = 80; // ms
+        private static final int DEFAULT_MAX_DURATION = 280; // ms
+
+        private float mVelocityThreshold;
+        private float mDeceleration;
+        private int mMinDuration = DEFAULT_MIN_DURATION;
+        private int mMaxDuration = DEFAULT_MAX_DURATION;
+        private Interpolator mInterpolator = new DecelerateInterpolator();
+
+        public FlingSettlePolicy(@NonNull Context context) {
+            final float density = context.getResources().getDisplayMetrics().density;
+            mVelocityThreshold = DEFAULT_VELOCITY_THRESHOLD * density;
+            mDeceleration = DEFAULT_DECELERATION * density;
+        }
+
+        /**
+         * @param velocityThreshold Minimum release velocity in pixels per second to be treated as a fling
+         */
+        public void setVelocityThreshold(float velocityThreshold) {
+            mVelocityThreshold = velocityThreshold;
+        }
+
+        /**
+         * @param deceleration Deceleration in pixels per second^2 used to project the drawer position
+         */
+        public void setDeceleration(float deceleration) {
+            mDeceleration = deceleration;
+        }
+
+        /**
+         * @param minDuration Lower limit of the settle duration, ms
+         * @param maxDuration Upper limit of the settle duration, ms
+         */
+        public void setDurationLimits(int minDuration, int maxDuration) {
+            if (minDuration <= 0 || maxDuration < minDuration) {
+                throw new IllegalArgumentException("Wrong duration limits: " + minDuration + " - " + maxDuration);
+            }
+            mMinDuration = minDuration;
+            mMaxDuration = maxDuration;
+        }
+
+        public void setInterpolator(@Nullable Interpolator interpolator) {
+            mInterpolator = interpolator;
+        }
+
+        @Override
+        public float computeTargetOffset(float offset, float velocity, int drawerWidth, @NonNull float[] restOffsets) {
+            return DrawerMath.flingTargetOffset(offset, velocity, mVelocityThreshold, mDeceleration, drawerWidth, restOffsets);
+        }
+
+        @Override
+        public int computeSettleDuration(float fromOffset, float toOffset, float velocity, int drawerWidth) {
+            final float distance = Math.abs(toOffset - fromOffset) * drawerWidth;
+            int duration;
+            if (Math.abs(velocity) < mVelocityThreshold) {
+                duration = (int) (mMaxDuration * Math.abs(toOffset - fromOffset));
+            } else {
+                // A decelerating motion starts at about twice its average speed
+                duration = (int) (2000 * distance / Math.abs(velocity));
+            }
+            return Math.max(mMinDuration, Math.min(duration, mMaxDuration));
+        }
+
+        @Nullable
+        @Override
+        public Interpolator getInterpolator() {
+            return mInterpolator;
+        }
+    }
+
+    public SideSwipePanelLayout(@NonNull Context context) {
+        this(context, null);
+    }
+
+    public SideSwipePanelLayout(@NonNull Context context, @Nullable AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+
+    public SideSwipePanelLayout(@NonNull Context context, @Nullable AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        setDescendantFocusability(ViewGroup.FOCUS_AFTER_DESCENDANTS);
+        final float density = getResources().getDisplayMetrics().density;
+
+
+        TypedArray a = context.getResources().obtainAttributes(attrs, R.styleable.SideSwipePanelLayout);
+        mMinDrawerMargin = a.getDimensionPixelSize(R.styleable.SideSwipePanelLayout_minDrawerMargin, (int) (MIN_DRAWER_DEFAULT_MARGIN * density + 0.5f));
+        final int scrimMode = a.getInt(R.styleable.SideSwipePanelLayout_scrimMode, SCRIM_MODE_CANVAS);
+        mDockedMinWidth = a.getDimensionPixelSize(R.styleable.SideSwipePanelLayout_dockedMinWidth, 0);
+        mSwipeZoneWidth = a.getDimensionPixelSize(R.styleable.SideSwipePanelLayout_swipeZoneWidth, 0);
+        mSwipeZoneFraction = a.getFloat(R.styleable.SideSwipePanelLayout_swipeZoneFraction, 0f);
+        if (a.getInt(R.styleable.SideSwipePanelLayout_swipeZone, SWIPE_ZONE_EDGE) == SWIPE_ZONE_FULL) {
+            mSwipeZoneFraction = 1f;
+        }
+        final @LayoutRes int drawerLayout = a.getResourceId(R.styleable.SideSwipePanelLayout_drawerLayout, 0);
+        final int drawerGravity = a.getInt(R.styleable.SideSwipePanelLayout_drawerGravity, GravityCompat.START);
+        final @ContentMotion int contentMotion = a.getInt(R.styleable.SideSwipePanelLayout_contentMotion, CONTENT_MOTION_CLIP);
+        switch (contentMotion) {
+            case CONTENT_MOTION_PUSH:
+                mContentTransformer = new PushContentTransformer(a.getFloat(R.styleable.SideSwipePanelLayout_contentPushRatio, 1f));
+                break;
+            case CONTENT_MOTION_SCALE:
+                mContentTransformer = new ScaleContentTransformer(
+                        a.getFloat(R.styleable.SideSwipePanelLayout_contentMinScale, 0.85f),
+                        a.getFloat(R.styleable.SideSwipePanelLayout_contentMinAlpha, 1f));
+                break;
+            default:
+                // Canvas translate and clip in drawChild()
+        }
+        a.recycle();
+
+
+        final float minVel = MIN_FLING_VELOCITY * density;
+        mDraggerCallback = new ViewDragCallback();
+        mDragger = ViewDragHelper.create(this, TOUCH_SLOP_SENSITIVITY, mDraggerCallback);
+        mDragger.setEdgeTrackingEnabled(0);
+        mDragger.setMinVelocity(minVel);
+        mDraggerCallback.setDragger(mDragger);
+
+        setScrimMode(scrimMode);
+        if (drawerLayout != 0) {
+            setLazyDrawer(drawerLayout, drawerGravity);
+        }
+
+        // So that we can catch the back button
+        setFocusableInTouchMode(true);
+
+        setMotionEventSplittingEnabled(false);
+    }
+
+    /**
+     * Let the drawer view be created on demand instead of being declared as the second child.
+     * The drawer is created when the main thread becomes idle after the layout is attached to a
+     * window, or earlier if the user touches the drawer edge or the drawer is opened
+     * programmatically. Until then {@link #getDrawerView()} returns null. A drawer created after
+     * the first layout is measured and laid out only when it is about to become visible.
+     *
+     * @param factory Creates the drawer view
+     * @param gravity Edge of the drawer. One of LEFT, RIGHT, START or END. Applied to the drawer
+     *                view if its LayoutParams have no gravity.
+     * @see #setOnDrawerReadyListener(OnDrawerReadyListener)
+     */
+    public void setLazyDrawer(@NonNull DrawerFactory factory, @EdgeGravity int gravity) {
+        if (hasDrawer()) {
+            throw new IllegalStateException("The drawer view already exists");
+        }
+        mDrawerFactory = factory;
+        mLazyDrawerGravity = gravity;
+        mDrawerAbsGravity = Gravity.NO_GRAVITY;
+        if (isAttachedToWindow()) {
+            Looper.myQueue().addIdleHandler(mDrawerIdleCreator);
+        }
+    }
+
+    /**
+     * Same as {@link #setLazyDrawer(DrawerFactory, int)} with the drawer inflated from a layout resource.
+     */
+    public void setLazyDrawer(@LayoutRes int layoutRes, @EdgeGravity int gravity) {
+        setLazyDrawer(parent -> LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false), gravity);
+    }
+
+    /**
+     * Set a listener to know when the back navigation should close the drawer. It is called
+     * with the current state right away.
+     */
+    public void setOnBackHandlingChangedListener(@Nullable OnBackHandlingChangedListener listener) {
+        mBackHandlingListener = listener;
+        if (listener != null) {
+            mHandlesBack = isDrawerAboveBaseDetent();
+            listener.onBackHandlingChanged(mHandlesBack);
+        }
+    }
+
+    private void updateBackHandling() {
+        final boolean handlesBack = isDrawerAboveBaseDetent();
+        if (handlesBack != mHandlesBack) {
+            mHandlesBack = handlesBack;
+            mBackHandlingListener.onBackHandlingChanged(handlesBack);
+        }
+    }
+
+    /**
+     * Start scrubbing the drawer by a back gesture, e.g. from the progress events of a predictive
+     * back callback. The drawer follows {@link #updateBackProgress(float)} directly and settles
+     * on {@link #commitBackProgress()} or {@link #cancelBackProgress()}.
+     *
+     * @return false if the back navigation can not close the drawer now
+     */
+    public boolean startBackProgress() {
+        if (!isDrawerAboveBaseDetent() || mLockMode != LOCK_MODE_UNLOCKED) {
+            return false;
+        }
+        stopDraggerSettling();
+        stopOffsetAnimation();
+        mBackStartOffset = getDrawerViewOffset();
+        mBackTargetOffset = getBaseRestOffset();
+        mBackProgressActive = true;
+        updateDrawerState(STATE_DRAGGING);
+        return true;
+    }
+
+    /**
+     * @param progress Progress of the back gesture, from 0-1. At 1 the drawer is closed, or
+     *                 returned to the lowest detent.
+     */
+    public void updateBackProgress(float progress) {
+        if (mBackProgressActive) {
+            final float fraction = Math.max(0f, Math.min(progress, 1f));
+            applyDrawerOffset(mBackStartOffset + (mBackTargetOffset - mBackStartOffset) * fraction);
+        }
+    }
+
+    /**
+     * Finish the back gesture closing the drawer from where the gesture has left it.
+     */
+    public void commitBackProgress() {
+        if (finishBackProgress()) {
+            if (mBackTargetOffset == 0) {
+                getDrawerLayoutParams().openState |= LayoutParams.FLAG_IS_CLOSING;
+            }
+            settleDrawerTo(mBackTargetOffset, 0, false);
+            updateDrawerState(mDragger.getViewDragState());
+        }
+    }
+
+    /**
+     * Cancel the back gesture returning the drawer to where the gesture has started.
+     */
+    public void cancelBackProgress() {
+        if (finishBackProgress()) {
+            settleDrawerTo(mBackStartOffset, 0, false);
+            updateDrawerState(mDragger.getViewDragState());
+        }
+    }
+
+    private boolean finishBackProgress() {
+        if (!mBackProgressActive) {
+            return false;
+        }
+        mBackProgressActive = false;
+        if (mBackHandlingListener != null) {
+            updateBackHandling();
+        }
+        return true;
+    }
+
+    public void setOnDrawerReadyListener(@Nullable OnDrawerReadyListener listener) {
+        mDrawerReadyListener = listener;
+    }
+
+    /**
+     * Creates the lazy drawer view if it was not created yet. If the layout has already been laid
+     * out, the drawer is measured and laid out immediately, so it can be dragged right away.
+     *
+     * @return true if the drawer view exists
+     */
+    private boolean ensureDrawer() {
+        if (mDrawerFactory != null) {
+            createLazyDrawer();
+        }
+        if (!hasDrawer()) {
+            return false;
+        }
+        final LayoutParams lp = getDrawerLayoutParams();
+        if (lp.measureDeferred) {
+            lp.measureDeferred = false;
+            measureDrawerView(getDrawerView(), lp, mWidthMeasureSpec, mHeightMeasureSpec);
+            layoutDrawerView(getDrawerView(), lp, getWidth(), getHeight());
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #ensureDrawer()} for the drawer at the given edge, which becomes the active one.
+     *
+     * @param absHorizGravity Gravity.LEFT or Gravity.RIGHT
+     * @return false if there is no drawer at the edge or another drawer is not closed yet
+     */
+    private boolean ensureDrawerAt(int absHorizGravity) {
+        if (mDrawerFactory != null) {
+            createLazyDrawer();
+        }
+        return activateDrawer(absHorizGravity) && ensureDrawer();
+    }
+
+    /**
+     * Makes the drawer at the given edge the active one. It is only possible while the current
+     * active drawer is completely closed and idle, as only one drawer may be out at a time.
+     *
+     * @param absHorizGravity Gravity.LEFT or Gravity.RIGHT
+     * @return true if the drawer at the given edge is the active one now
+     */
+    private boolean activateDrawer(int absHorizGravity) {
+        if (!hasDrawer()) {
+            return false;
+        } else if (checkDrawerViewAbsoluteGravity(absHorizGravity)) {
+            return true;
+        }
+        final int index = findDrawerIndex(absHorizGravity);
+        if (index < 0 || getDrawerLayoutParams().onScreen > 0 || mDrawerState != STATE_IDLE || mOffsetAnimRunning) {
+            return false;
+        }
+        flushPendingSlide();
+        mActiveDrawer = index;
+        return true;
+    }
+
+    /**
+     * @param absHorizGravity Gravity.LEFT or Gravity.RIGHT
+     * @return Child index of the drawer at the given edge or -1
+     */
+    private int findDrawerIndex(int absHorizGravity) {
+        final int childCount = getChildCount();
+        for (int i = 1; i < childCount; i++) {
+            if ((getDrawerAbsoluteGravity(getChildAt(i)) & absHorizGravity) == absHorizGravity) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void createLazyDrawer() {
+        final DrawerFactory factory = mDrawerFactory;
+        mDrawerFactory = null;
+        Looper.myQueue().removeIdleHandler(mDrawerIdleCreator);
+        if (hasDrawer()) {
+            // The drawer was added as a regular child meanwhile
+            return;
+        }
+
+        final View vDrawer = factory.createDrawerView(this);
+        ViewGroup.LayoutParams params = vDrawer.getLayoutParams();
+        final LayoutParams lp = (params == null)
+                ? (LayoutParams) generateDefaultLayoutParams()
+                : (checkLayoutParams(params) ? (LayoutParams) params : (LayoutParams) generateLayoutParams(params));
+        if (lp.gravity == Gravity.NO_GRAVITY) {
+            lp.gravity = mLazyDrawerGravity;
+        }
+        vDrawer.setVisibility(INVISIBLE);
+        addView(vDrawer, 1, lp);
+
+        // Measured and laid out right away by ensureDrawer() if the layout pass is already over
+        lp.measureDeferred = !mFirstLayout;
+        if (mDrawerReadyListener != null) {
+            mDrawerReadyListener.onDrawerReady(vDrawer);
+        }
+    }
+
+    private boolean hasDrawer() {
+        return getChildCount() > 1;
+    }
+
+    public void setMinDrawerMargin(int minDrawerMargin) {
+        if (this.mMinDrawerMargin != minDrawerMargin) {
+            this.mMinDrawerMargin  = minDrawerMargin;
+            invalidate();
+            requestLayout();
+        }
+    }
+
+    /**
+     * Set a color to use for the scrim that obscures primary content while a drawer is open.
+     *
+     * @param color Color to use in 0xAARRGGBB format.
+     */
+    public void setScrimColor(@ColorInt int color) {
+        mScrimColor = color;
+        mScrimPaint.setColor(DrawerMath.scrimColor(color, mScrimOpacity));
+        if (mScrimDrawable != null) {
+            mScrimDrawable.setColor(color);
+            mScrimDrawable.setAlpha((int) (255 * mScrimOpacity));
+        }
+        invalidate();
+    }
+
+    /**
+     * Set the way the scrim is drawn.
+     *
+     * @param scrimMode One of {@link #SCRIM_MODE_CANVAS}, {@link #SCRIM_MODE_OVERLAY} or
+     *                  {@link #SCRIM_MODE_NONE}
+     */
+    public void setScrimMode(@ScrimMode int scrimMode) {
+        if (mScrimMode == scrimMode) return;
+
+        if (mScrimDrawable != null) {
+            getOverlay().remove(mScrimDrawable);
+            mScrimDrawable = null;
+        }
+        mScrimMode = scrimMode;
+        if (scrimMode == SCRIM_MODE_OVERLAY) {
+            mScrimDrawable = new ColorDrawable(mScrimColor);
+            getOverlay().add(mScrimDrawable);
+            updateScrim();
+        }
+        invalidate();
+    }
+
+    @ScrimMode
+    public int getScrimMode() {
+        return mScrimMode;
+    }
+
+    /**
+     * Set where on the content a drawer can be swiped out from.
+     *
+     * @param swipeZone {@link #SWIPE_ZONE_EDGE} or {@link #SWIPE_ZONE_FULL}
+     */
+    public void setSwipeZone(@SwipeZone int swipeZone) {
+        mSwipeZoneWidth = 0;
+        mSwipeZoneFraction = (swipeZone == SWIPE_ZONE_FULL) ? 1f : 0f;
+    }
+
+    /**
+     * Let a drawer be swiped out from a strip along its edge, which is wider than the edge tracked
+     * by the ViewDragHelper. A touch in the strip is only taken from the children, once it has
+     * moved beyond the touch slop towards the opening direction of the drawer. A gesture, which
+     * starts vertically or towards the other side, stays with the children.
+     *
+     * @param width Width of the strip in pixels. 0 to swipe from the edge only.
+     */
+    public void setSwipeZoneWidth(int width) {
+        mSwipeZoneWidth = Math.max(0, width);
+        mSwipeZoneFraction = 0f;
+    }
+
+    /**
+     * Same as {@link #setSwipeZoneWidth(int)} with the width of the strip relative to the width
+     * of this layout.
+     *
+     * @param fraction Width of the strip from 0-1. 1 lets a drawer be swiped out from anywhere
+     *                 on the content.
+     */
+    public void setSwipeZoneFraction(float fraction) {
+        mSwipeZoneWidth = 0;
+        mSwipeZoneFraction = Math.max(0f, Math.min(fraction, 1f));
+    }
+
+    /**
+     * @return Width of the swipe zone strip in pixels, 0 if a drawer can be swiped from the edge only
+     */
+    public int getSwipeZoneWidth() {
+        return (mSwipeZoneFraction > 0) ? (int) (mSwipeZoneFraction * getWidth()) : mSwipeZoneWidth;
+    }
+
+    /**
+     * Switch the way the content view follows the drawer.
+     *
+     * <p>By default the content is translated and clipped on the canvas in
+     * {@link #drawChild(Canvas, View, long)}, so every frame of a drag re-issues the content's
+     * draw. When enabled, the content is moved with {@link View#setTranslationX(float)} instead
+     * and rendered into a hardware layer while the drawer is {@link ViewDragHelper#STATE_DRAGGING}
+     * or {@link ViewDragHelper#STATE_SETTLING}, so a drag frame only updates a render property.
+     * The layer is dropped as soon as the drawer becomes idle.</p>
+     *
+     * <p>This is a shortcut for {@link #setContentTransformer(ContentTransformer)} with a
+     * {@link PushContentTransformer} of ratio 1. Disabling it restores the canvas translation only
+     * if that transformer is set, any other transformer is left in place.</p>
+     *
+     * @param enabled true to move the content by a render property on a hardware layer
+     */
+    public void setContentLayerTranslationEnabled(boolean enabled) {
+        if (isContentLayerTranslationEnabled() != enabled) {
+            setContentTransformer(enabled ? new PushContentTransformer(1f) : null);
+        }
+    }
+
+    /**
+     * @return Whether the content transformer is a {@link PushContentTransformer} of ratio 1
+     */
+    public boolean isContentLayerTranslationEnabled() {
+        return (mContentTransformer instanceof PushContentTransformer)
+                && ((PushContentTransformer) mContentTransformer).getRatio() == 1f;
+    }
+
+    /**
+     * Set the strategy of the content motion following the drawer. The content is moved with
+     * render properties only and is rendered into a hardware layer while the drawer is in motion.
+     *
+     * @param transformer The new strategy or null to translate and clip the content on the
+     *                    canvas in {@link #drawChild(Canvas, View, long)} (the default).
+     * @see PushContentTransformer
+     * @see ScaleContentTransformer
+     */
+    public void setContentTransformer(@Nullable ContentTransformer transformer) {
+        if (mContentTransformer == transformer) return;
+
+        final View vContent = getContentView();
+        if (vContent != null && mContentTransformer != null) {
+            mContentTransformer.resetContent(vContent);
+            if (vContent.getLayerType() != LAYER_TYPE_NONE) {
+                vContent.setLayerType(LAYER_TYPE_NONE, null);
+            }
+        }
+        mContentTransformer = transformer;
+        if (vContent != null && getChildCount() > 1) {
+            updateContentTransform();
+            updateContentLayer(mDrawerState);
+        }
+        invalidate();
+    }
+
+    @Nullable
+    public ContentTransformer getContentTransformer() {
+        return mContentTransformer;
+    }
+
+    /**
+     * Dock the drawer beside the content when this layout is at least the given width, e.g. on
+     * tablets. A docked drawer, which is out, takes its width from the content instead of
+     * pushing the content out of the screen: the content is resized to the remaining width.
+     * The content is not dimmed by the scrim and taps on it or the back key do not close the
+     * drawer.
+     *
+     * <p>The content is only re-measured when the drawer starts and stops moving. While the
+     * drawer is in motion, the content keeps the full width and is moved and clipped on the
+     * canvas, as in the regular mode. So a transition costs two measure passes of the content
+     * rather than one per frame. An offset driven by {@link #setDrawerOffset(float)}, e.g. from
+     * an external animator, is treated as motion until it reaches a detent, so scrubbing the
+     * drawer does not re-measure the content on every frame either. Content transformers are not
+     * applied while docked.</p>
+     *
+     * @param minWidth Minimal width of this layout in pixels to dock the drawer at, 0 to never dock it
+     */
+    public void setDockedMinWidth(int minWidth) {
+        if (mDockedMinWidth != minWidth) {
+            mDockedMinWidth = Math.max(0, minWidth);
+            requestLayout();
+        }
+    }
+
+    public int getDockedMinWidth() {
+        return mDockedMinWidth;
+    }
+
+    /**
+     * @return true if the drawer is docked beside the content at the current width of this layout
+     */
+    public boolean isDocked() {
+        return mDocked;
+    }
+
+    /**
+     * Render the drawer into a hardware layer while it is {@link ViewDragHelper#STATE_DRAGGING}
+     * or {@link ViewDragHelper#STATE_SETTLING}, so a frame of the motion only moves the layer
+     * instead of re-issuing the draw of the whole drawer subtree. The layer is dropped as soon as
+     * the drawer becomes idle. When the drawer content invalidates itself in the middle of a
+     * gesture, the layer is re-rendered on the next frame, so it never shows stale content.
+     *
+     * <p>The layer costs about 4 bytes per pixel of the drawer while it is held, see
+     * {@link #getDrawerSnapshotBytes()}. When the system runs low on memory
+     * ({@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW} or
+     * {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_CRITICAL}) a held layer is dropped for the
+     * rest of the motion. The mode itself stays enabled.</p>
+     *
+     * <p>This is worth it for drawers with a complex view tree, which do not change
+     * while they move. A drawer, which animates its content while it moves, pays for
+     * re-rendering the layer on each frame.</p>
+     *
+     * @param enabled true to move a snapshot of the drawer while it is in motion
+     */
+    public void setDrawerSnapshotEnabled(boolean enabled) {
+        if (mDrawerSnapshotEnabled == enabled) return;
+        mDrawerSnapshotEnabled = enabled;
+        if (isAttachedToWindow()) {
+            updateSnapshotCallbacks(enabled);
+        }
+        if (getChildCount() > 1) {
+            updateDrawerSnapshot(mDrawerState);
+        }
+    }
+
+    public boolean isDrawerSnapshotEnabled() {
+        return mDrawerSnapshotEnabled;
+    }
+
+    /**
+     * Make the drawer follow the finger more closely during a drag.
+     *
+     * <p>Input is delivered batched once per frame, so the drawer is always drawn at a finger
+     * position which is older than the frame. When enabled, the velocity of the finger is taken
+     * from all samples of a batch ({@link MotionEvent#getHistorySize()}) and the drawer is
+     * drawn where the finger is expected to be at the next frame. The prediction is limited to
+     * twice the touch slop and only moves the drawer on the screen, the ViewDragHelper,
+     * the settle and the listeners see the real finger position. On API 21+ the input of the drag
+     * is also requested unbuffered ({@link View#requestUnbufferedDispatch(MotionEvent)}), from
+     * the capture of the drawer until the end of the gesture.</p>
+     *
+     * @param enabled true to extrapolate the drawer position while it is dragged
+     */
+    public void setLowLatencyDragEnabled(boolean enabled) {
+        if (mLowLatencyDragEnabled == enabled) return;
+        mLowLatencyDragEnabled = enabled;
+        if (!enabled) {
+            resetDragPrediction();
+        }
+    }
+
+    public boolean isLowLatencyDragEnabled() {
+        return mLowLatencyDragEnabled;
+    }
+
+    /**
+     * Debug API.
+     * @return Approximate size in bytes of the drawer snapshot held at the moment, 0 if there is none
+     */
+    public long getDrawerSnapshotBytes() {
+        return (mSnapshotView == null) ? 0 : 4L * mSnapshotView.getWidth() * mSnapshotView.getHeight();
+    }
+
+    /**
+     * Debug API.
+     * @return how many times the content view was actually measured by this layout
+     */
+    public int getContentMeasureCount() {
+        return mContentMeasureCount;
+    }
+
+    /**
+     * Debug API.
+     * @return how many times the content view was actually laid out by this layout
+     */
+    public int getContentLayoutCount() {
+        return mContentLayoutCount;
+    }
+
+    /**
+     * Debug API.
+     * @return how many times the drawer view was actually measured by this layout
+     */
+    public int getDrawerMeasureCount() {
+        return mDrawerMeasureCount;
+    }
+
+    /**
+     * Debug API.
+     * @return how many times drawing of the content view was skipped because it was completely
+     *         covered by the (opaque) drawer
+     */
+    public int getSkippedContentDrawCount() {
+        return mSkippedContentDrawCount;
+    }
+
+    /**
+     * Debug API.
+     * @return how many times the scrim and the other values derived from the drawer offset were
+     *         recomputed. Redraws of the content alone must not change it.
+     */
+    public int getScrimUpdateCount() {
+        return mScrimUpdateCount;
+    }
+
+    /**
+     * Set the policy which decides where and how the drawer settles after the user releases it.
+     *
+     * @param policy The new policy, or null to restore the default one.
+     * @see DefaultSettlePolicy
+     * @see FlingSettlePolicy
+     */
+    public void setSettlePolicy(@Nullable SettlePolicy policy) {
+        mSettlePolicy = (policy == null) ? new DefaultSettlePolicy() : policy;
+    }
+
+    @NonNull
+    public SettlePolicy getSettlePolicy() {
+        return mSettlePolicy;
+    }
+
+    /**
+     * Set intermediate offsets the drawer can rest at besides closed and fully open, e.g. a narrow
+     * rail and a half open drawer. The settle policy chooses the detent to settle at.
+     * While the drawer is not above the lowest detent, the content is not dimmed and stays
+     * interactive. A tap on the dimmed content and the back key return the drawer to the lowest
+     * detent instead of closing it.
+     *
+     * @param fractions Detents as fractions of the drawer width, from 0-1
+     * @param pixels Detents as visible widths of the drawer in pixels
+     */
+    public void setDrawerDetents(@NonNull float[] fractions, @NonNull int[] pixels) {
+        mDetentFractions = fractions.clone();
+        mDetentPixels = pixels.clone();
+        mRestOffsetsWidth = -1;
+        updateScrim();
+        invalidate();
+    }
+
+    /**
+     * Same as {@link #setDrawerDetents(float[], int[])} with fraction detents only.
+     */
+    public void setDrawerDetents(float... fractions) {
+        setDrawerDetents(fractions, new int[0]);
+    }
+
+    /**
+     * @return Number of the drawer detents including the closed and open ones
+     */
+    public int getDrawerDetentCount() {
+        return getRestOffsets().length;
+    }
+
+    /**
+     * @return Index of the detent the drawer is at, 0 for the closed drawer, or -1 if the drawer
+     *         is in between the detents
+     */
+    public int getDrawerDetentIndex() {
+        return hasDrawer() ? findDetentIndex(getDrawerViewOffset(), true) : 0;
+    }
+
+    /**
+     * Move the drawer to the given detent.
+     *
+     * @param detentIndex 0 for the closed drawer, {@link #getDrawerDetentCount()} - 1 for the open one
+     * @param animate Whether the motion should be animated
+     */
+    public void setDrawerDetent(int detentIndex, boolean animate) {
+        if (!ensureDrawer()) return;
+        if (mFirstLayout) {
+            // The drawer width is not known yet, the detent is applied in onMeasure()
+            mPendingDetentIndex = detentIndex;
+            requestLayout();
+            return;
+        }
+        final float[] restOffsets = getRestOffsets();
+        final float target = restOffsets[Math.max(0, Math.min(detentIndex, restOffsets.length - 1))];
+        stopOffsetAnimation();
+        if (animate) {
+            settleDrawerTo(target, 0, false);
+        } else {
+            stopDraggerSettling();
+            applyDrawerOffset(target);
+            updateDrawerState(STATE_IDLE);
+        }
+    }
+
+    /**
+     * @return Offsets the drawer can rest at for the current width of the active drawer
+     */
+    private float[] getRestOffsets() {
+        final View vDrawer = getDrawerView();
+        final int width = (vDrawer == null) ? 0 : vDrawer.getMeasuredWidth();
+        if (width != mRestOffsetsWidth) {
+            mRestOffsets = DrawerMath.buildRestOffsets(mDetentFractions, mDetentPixels, width);
+            mRestOffsetsWidth = width;
+        }
+        return mRestOffsets;
+    }
 
+    /**
+     * @param exact true to get -1 for an offset in between the detents, false to get the highest
+     *              detent not above the offset. Offsets within a pixel from a detent match it.
+     */
+    private int findDetentIndex(float offset, boolean exact) {
+        final float[] restOffsets = getRestOffsets();
+        final float tolerance = (mRestOffsetsWidth > 0) ? 1f / mRestOffsetsWidth : 0;
+        return DrawerMath.findRestOffsetIndex(offset, restOffsets, tolerance, exact);
+    }
 
-        // So that we can catch the back button
-        setFocusableInTouchMode(true);
+    /**
+     * @return The lowest detent above the closed one, or 0 if there are no intermediate detents
+     */
+    private float getBaseRestOffset() {
+        final float[] restOffsets = getRestOffsets();
+        return (restOffsets.length > 2) ? restOffsets[1] : 0;
+    }
 
-        setMotionEventSplittingEnabled(false);
+    /**
+     * @return Opacity of the scrim for the given drawer offset. The scrim fades in above the
+     *         lowest detent only.
+     */
+    private float computeScrimOpacity(float slideOffset) {
+        return DrawerMath.scrimOpacity(slideOffset, getBaseRestOffset());
     }
 
-    public void setMinDrawerMargin(int minDrawerMargin) {
-        if (this.mMinDrawerMargin != minDrawerMargin) {
-            this.mMinDrawerMargin  = minDrawerMargin;
-            invalidate();
-            requestLayout();
+    /**
+     * Set a listener to receive performance metrics of every drawer gesture. Metrics are only
+     * collected while a listener is set.
+     *
+     * @param listener The listener or null to stop collecting metrics
+     */
+    public void setDrawerMetricsListener(@Nullable DrawerMetricsListener listener) {
+        if (mMetricsTracker != null) {
+            mMetricsTracker.cancel();
+            mMetricsTracker = null;
+        }
+        if (listener != null) {
+            mMetricsTracker = new GestureMetricsTracker(listener);
         }
     }
 
     /**
-     * Set a color to use for the scrim that obscures primary content while a drawer is open.
+     * Set how {@link DrawerListener#onDrawerSlide(float)} calls are dispatched.
      *
-     * @param color Color to use in 0xAARRGGBB format.
+     * @param mode One of {@link #SLIDE_DISPATCH_IMMEDIATE} or {@link #SLIDE_DISPATCH_VSYNC}
      */
-    public void setScrimColor(@ColorInt int color) {
-        mScrimColor = color;
-        invalidate();
+    public void setSlideDispatchMode(@SlideDispatchMode int mode) {
+        if (mSlideDispatchMode != mode) {
+            flushPendingSlide();
+            mSlideDispatchMode = mode;
+        }
+    }
+
+    @SlideDispatchMode
+    public int getSlideDispatchMode() {
+        return mSlideDispatchMode;
     }
 
     public void addDrawerListener(@NonNull DrawerListener listener) {
+        addDrawerListener(listener, 0, 0);
+    }
+
+    /**
+     * Add a listener with throttled {@link DrawerListener#onDrawerSlide(float)} calls. A slide
+     * callback is skipped for this listener if the offset has changed by less than minSlideDelta
+     * since its previous slide callback, or if it would exceed maxSlideRate. The fully closed and
+     * fully open offsets are always delivered. The other callbacks are never throttled.
+     *
+     * @param minSlideDelta Minimum offset change between two slide callbacks, 0 for no limit
+     * @param maxSlideRate Maximum number of slide callbacks per second, 0 for no limit
+     */
+    public void addDrawerListener(@NonNull DrawerListener listener, float minSlideDelta, int maxSlideRate) {
         assert (listener != null);
-        if (mListeners == null) {
-            mListeners = new ArrayList<>();
-        }
-        mListeners.add(listener);
+        final ListenerRecord[] old = mListeners;
+        final ListenerRecord[] listeners = new ListenerRecord[old.length + 1];
+        System.arraycopy(old, 0, listeners, 0, old.length);
+        listeners[old.length] = new ListenerRecord(listener, minSlideDelta, maxSlideRate);
+        mListeners = listeners;
     }
 
     public void removeDrawerListener(@NonNull DrawerListener listener) {
         assert (listener != null);
-        if (mListeners == null) {
-            // This can happen if this method is called before the first call to addDrawerListener
-            return;
+        final ListenerRecord[] old = mListeners;
+        for (int i = 0; i < old.length; i++) {
+            if (old[i].listener == listener) {
+                final ListenerRecord[] listeners = (old.length == 1) ? EMPTY_LISTENERS : new ListenerRecord[old.length - 1];
+                System.arraycopy(old, 0, listeners, 0, i);
+                System.arraycopy(old, i + 1, listeners, i, old.length - i - 1);
+                mListeners = listeners;
+                return;
+            }
         }
-        mListeners.remove(listener);
     }
 
     /**
@@ -274,6 +1630,7 @@ public class SideSwipePanelLayout extends ViewGroup {
             if (lockMode != LOCK_MODE_UNLOCKED) {
                 // Cancel interaction in progress
                 mDragger.cancel();
+                stopOffsetAnimation();
             }
             switch (lockMode) {
                 case LOCK_MODE_LOCKED_OPEN:
@@ -290,8 +1647,24 @@ public class SideSwipePanelLayout extends ViewGroup {
 
 
 
+    /**
+     * @return The drawer view or null if the lazy drawer has not been created yet. With two
+     *         drawers this is the active one - the drawer which is out or was out the last.
+     * @see #setLazyDrawer(DrawerFactory, int)
+     */
+    @Nullable
     public View getDrawerView() {
-        return getChildAt(1);
+        return getChildAt(mActiveDrawer);
+    }
+
+    /**
+     * @param gravity Edge of the drawer. One of LEFT, RIGHT, START or END.
+     * @return The drawer view at the given edge or null if there is no such drawer
+     */
+    @Nullable
+    public View getDrawerView(@EdgeGravity int gravity) {
+        final int index = findDrawerIndex(getAbsoluteHorizontalGravity(gravity));
+        return (index < 0) ? null : getChildAt(index);
     }
 
     public View getContentView() {
@@ -370,29 +1743,45 @@ public class SideSwipePanelLayout extends ViewGroup {
      */
     private void updateDrawerState(@DrawerState int activeState) {
         View drawerView = getDrawerView();
-        final int state = mDragger.getViewDragState();
+        final boolean draggedExternally = mNestedDragging || mBackProgressActive;
+        final int state = mOffsetAnimRunning ? STATE_SETTLING : (draggedExternally ? STATE_DRAGGING : mDragger.getViewDragState());
 
-        if (drawerView != null && activeState == STATE_IDLE) {
-            final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        if (drawerView != null && activeState == STATE_IDLE && !mOffsetAnimRunning && !draggedExternally) {
+            final LayoutParams lp = getDrawerLayoutParams();
             if (lp.onScreen == 0) {
-                dispatchOnDrawerClosed((LayoutParams) drawerView.getLayoutParams());
+                dispatchOnDrawerClosed(lp);
             } else if (lp.onScreen == 1) {
-                dispatchOnDrawerOpened((LayoutParams) drawerView.getLayoutParams());
+                dispatchOnDrawerOpened(lp);
             }
+            dispatchOnDrawerDetentSettled(findDetentIndex(lp.onScreen, true));
         }
 
         if (state != mDrawerState) {
+            final int oldState = mDrawerState;
             mDrawerState = state;
+            if (TRACE && state == STATE_IDLE) traceMarker(TRACE_GESTURE_IDLE);
+            updateContentLayer(state);
+            updateDrawerSnapshot(state);
+            if (state != STATE_DRAGGING) {
+                resetDragPrediction();
+            }
 
-            if (mListeners != null) {
-                // Notify the listeners. Do that from the end of the list so that if a listener
-                // removes itself as the result of being called, it won't mess up with our iteration
-                int listenerCount = mListeners.size();
-                for (int i = listenerCount - 1; i >= 0; i--) {
-                    mListeners.get(i).onDrawerStateChanged(state);
-                }
+            flushPendingSlide();
+            if (state == STATE_IDLE) {
+                dispatchFinalSlide(getDrawerViewOffset());
+            }
+            for (ListenerRecord record : mListeners) {
+                record.listener.onDrawerStateChanged(state);
+            }
+
+            if (mMetricsTracker != null) {
+                mMetricsTracker.onDrawerStateChanged(oldState, state);
             }
         }
+
+        if (mDocked) {
+            updateDockedInset();
+        }
     }
 
     /**
@@ -403,13 +1792,9 @@ public class SideSwipePanelLayout extends ViewGroup {
         if (lp.openState != LayoutParams.STATE_IS_CLOSED) {
             lp.openState = LayoutParams.STATE_IS_CLOSED;
 
-            if (mListeners != null) {
-                // Notify the listeners. Do that from the end of the list so that if a listener
-                // removes itself as the result of being called, it won't mess up with our iteration
-                int listenerCount = mListeners.size();
-                for (int i = listenerCount - 1; i >= 0; i--) {
-                    mListeners.get(i).onDrawerClosed();
-                }
+            flushPendingSlide();
+            for (ListenerRecord record : mListeners) {
+                record.listener.onDrawerClosed();
             }
 
             // Only send WINDOW_STATE_CHANGE if the host has window focus. This
@@ -427,13 +1812,9 @@ public class SideSwipePanelLayout extends ViewGroup {
     private void dispatchOnDrawerOpened(LayoutParams lp) {
         if ((lp.openState & LayoutParams.FLAG_IS_OPENED) == 0) {
             lp.openState = LayoutParams.FLAG_IS_OPENED;
-            if (mListeners != null) {
-                // Notify the listeners. Do that from the end of the list so that if a listener
-                // removes itself as the result of being called, it won't mess up with our iteration
-                int listenerCount = mListeners.size();
-                for (int i = listenerCount - 1; i >= 0; i--) {
-                    mListeners.get(i).onDrawerOpened();
-                }
+            flushPendingSlide();
+            for (ListenerRecord record : mListeners) {
+                record.listener.onDrawerOpened();
             }
 
             // Only send WINDOW_STATE_CHANGE if the host has window focus.
@@ -443,30 +1824,296 @@ public class SideSwipePanelLayout extends ViewGroup {
         }
     }
 
+    private void dispatchOnDrawerDetentSettled(int detentIndex) {
+        if (detentIndex != mSettledDetentIndex) {
+            mSettledDetentIndex = detentIndex;
+            if (detentIndex < 0) return;
+
+            flushPendingSlide();
+            for (ListenerRecord record : mListeners) {
+                if (record.detentListener != null) {
+                    record.detentListener.onDrawerDetentSettled(detentIndex);
+                }
+            }
+        }
+    }
+
     private void setDrawerViewOffset(float slideOffset) {
-        final LayoutParams lp = (LayoutParams) getDrawerView().getLayoutParams();
+        final LayoutParams lp = getDrawerLayoutParams();
         if (slideOffset == lp.onScreen) {
             return;
         }
         lp.onScreen = slideOffset;
+        updateScrim();
+        if (mBackHandlingListener != null && !mBackProgressActive) {
+            updateBackHandling();
+        }
 
         //--- Dispatch onDrawerSlide  ----
-        if (mListeners != null) {
-            // Notify the listeners. Do that from the end of the list so that if a listener
-            // removes itself as the result of being called, it won't mess up with our iteration
-            int listenerCount = mListeners.size();
-            for (int i = listenerCount - 1; i >= 0; i--) {
-                mListeners.get(i).onDrawerSlide(slideOffset);
+        if (mSlideDispatchMode == SLIDE_DISPATCH_IMMEDIATE) {
+            dispatchOnDrawerSlide(slideOffset);
+        } else if (!mSlideDispatchPending && mListeners.length > 0) {
+            mSlideDispatchPending = true;
+            Choreographer.getInstance().postFrameCallback(mSlideDispatchCallback);
+        }
+    }
+
+    private void dispatchOnDrawerSlide(float slideOffset) {
+        // Iterate over the snapshot, so a listener may add or remove listeners from the callback.
+        final ListenerRecord[] listeners = mListeners;
+        if (listeners.length == 0) return;
+
+        if (TRACE) TraceCompat.beginSection(TRACE_DISPATCH_SLIDE);
+        try {
+            final long now = System.nanoTime();
+            final int detentIndex = findDetentIndex(slideOffset, false);
+            for (ListenerRecord record : listeners) {
+                record.dispatchOnDrawerSlide(slideOffset, detentIndex, now);
+            }
+        } finally {
+            if (TRACE) TraceCompat.endSection();
+        }
+    }
+
+    /**
+     * Delivers the offset the drawer came to rest at to the listeners whose throttling dropped it,
+     * so none of them is left with an intermediate offset.
+     */
+    private void dispatchFinalSlide(float slideOffset) {
+        final ListenerRecord[] listeners = mListeners;
+        if (listeners.length == 0) return;
+
+        final long now = System.nanoTime();
+        final int detentIndex = findDetentIndex(slideOffset, false);
+        for (ListenerRecord record : listeners) {
+            record.dispatchFinalSlide(slideOffset, detentIndex, now);
+        }
+    }
+
+    private static void traceMarker(String name) {
+        TraceCompat.beginSection(name);
+        TraceCompat.endSection();
+    }
+
+    /**
+     * Delivers the coalesced slide callback right away, if there is one pending.
+     */
+    private void flushPendingSlide() {
+        if (mSlideDispatchPending) {
+            mSlideDispatchPending = false;
+            Choreographer.getInstance().removeFrameCallback(mSlideDispatchCallback);
+            if (hasDrawer()) {
+                dispatchOnDrawerSlide(getDrawerViewOffset());
+            }
+        }
+    }
+
+    /**
+     * Applies the content transformer according to the drawer position.
+     * Does nothing in the default (canvas) mode.
+     */
+    private void updateContentTransform() {
+        if (!usesContentTransformer()) return;
+
+        final View vDr = getDrawerView();
+        float pushDistance = 0;
+        if (vDr.getVisibility() == View.VISIBLE) {
+            pushDistance = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? vDr.getRight() : vDr.getLeft() - getWidth();
+        }
+        mContentTransformer.transformContent(getContentView(), pushDistance, getDrawerLayoutParams().onScreen);
+    }
+
+    /**
+     * Updates the scrim opacity and the paint of the canvas scrim according to the drawer offset.
+     * In the {@link #SCRIM_MODE_OVERLAY} also fits the overlay scrim to the visible part of the
+     * content. Should be called whenever the drawer moves, so nothing of the scrim is computed
+     * on a draw pass.
+     */
+    private void updateScrim() {
+        mScrimUpdateCount ++;
+        final float scrimOpacity = (hasDrawer() && !mDocked) ? computeScrimOpacity(getDrawerLayoutParams().onScreen) : 0;
+        if (scrimOpacity != mScrimOpacity) {
+            mScrimOpacity = scrimOpacity;
+            mScrimPaint.setColor(DrawerMath.scrimColor(mScrimColor, scrimOpacity));
+        }
+        if (mScrimDrawable == null || getChildCount() < 2) return;
+
+        final View vDr = getDrawerView();
+        int clipLeft = 0, clipRight = getWidth();
+        if (vDr.getVisibility() == View.VISIBLE) {
+            if (checkDrawerViewAbsoluteGravity(Gravity.LEFT)) {
+                clipLeft = vDr.getRight();
+            } else {
+                clipRight = vDr.getLeft();
             }
         }
+        mScrimDrawable.setBounds(clipLeft, 0, clipRight, getHeight());
+        mScrimDrawable.setAlpha((int) (255 * mScrimOpacity));
+    }
+
+    /**
+     * Enables the hardware layer of the content view while the drawer is in motion and drops it
+     * when the drawer becomes idle. Does nothing in the default (canvas) mode.
+     */
+    private void updateContentLayer(@DrawerState int state) {
+        if (!usesContentTransformer()) return;
+
+        final View vContent = getContentView();
+        final int layerType = (state == STATE_IDLE) ? LAYER_TYPE_NONE : LAYER_TYPE_HARDWARE;
+        if (vContent.getLayerType() != layerType) {
+            vContent.setLayerType(layerType, null);
+        }
+    }
+
+    /**
+     * Renders the active drawer into a hardware layer while it is in motion and drops the layer
+     * when the drawer becomes idle. Does nothing unless the snapshot mode is enabled.
+     */
+    private void updateDrawerSnapshot(@DrawerState int state) {
+        if (state == STATE_IDLE) {
+            mSnapshotTrimmed = false;
+        }
+        final View vTarget = (mDrawerSnapshotEnabled && state != STATE_IDLE && !mSnapshotTrimmed) ? getDrawerView() : null;
+        if (vTarget == mSnapshotView) return;
+
+        releaseDrawerSnapshot();
+        // A drawer with its own layer keeps it, it is the same snapshot already
+        if (vTarget != null && vTarget.getLayerType() == LAYER_TYPE_NONE) {
+            vTarget.setLayerType(LAYER_TYPE_HARDWARE, null);
+            mSnapshotView = vTarget;
+        }
+    }
+
+    /**
+     * Drops the layer of the drawer snapshot on memory pressure. No new layer is rendered until
+     * the drawer becomes idle.
+     */
+    private void trimDrawerSnapshot() {
+        mSnapshotTrimmed = (mDrawerState != STATE_IDLE);
+        releaseDrawerSnapshot();
+    }
+
+    /**
+     * Drops the layer of the drawer snapshot, if one is held.
+     */
+    private void releaseDrawerSnapshot() {
+        if (mSnapshotView != null) {
+            mSnapshotView.setLayerType(LAYER_TYPE_NONE, null);
+            mSnapshotView = null;
+        }
+    }
+
+    /**
+     * Moves the drawer ahead of the dragging finger to where the finger is expected at the next
+     * frame. Should be called after the ViewDragHelper has processed the event.
+     */
+    private void predictDrag(MotionEvent ev) {
+        final View vDrawer = mDragger.getCapturedView();
+        if (mDragger.getViewDragState() != STATE_DRAGGING || !isDrawerView(vDrawer)) return;
+
+        if (!mUnbufferedDispatchRequested && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            requestUnbufferedDispatch(ev);
+            mUnbufferedDispatchRequested = true;
+        }
+        if (ev.getActionMasked() != MotionEvent.ACTION_MOVE) return;
+        final int pointerIndex = ev.findPointerIndex(mDragger.getActivePointerId());
+        if (pointerIndex < 0) return;
+
+        final float x = ev.getX(pointerIndex);
+        final long time = ev.getEventTime();
+        if (mLastDragTime == 0) {
+            final Display display = getDisplay();
+            mFramePeriodMs = 1000f / ((display == null || display.getRefreshRate() <= 0) ? 60f : display.getRefreshRate());
+        }
+        // The velocity of the latest batch: from its oldest historical sample, or from the
+        // previous event if the batch has a single sample
+        final float fromX;
+        final long fromTime;
+        if (ev.getHistorySize() > 0) {
+            fromX = ev.getHistoricalX(pointerIndex, 0);
+            fromTime = ev.getHistoricalEventTime(0);
+        } else {
+            fromX = mLastDragX;
+            fromTime = mLastDragTime;
+        }
+        mLastDragX = x;
+        mLastDragTime = time;
+        if (fromTime == 0) return;
+
+        final float predicted = DrawerMath.extrapolate(x - fromX, time - fromTime, mFramePeriodMs, 2 * mDragger.getTouchSlop());
+        final int left = vDrawer.getLeft();
+        final int predictedLeft = DrawerMath.clampDrawerLeft(left + Math.round(predicted), vDrawer.getWidth(), getWidth(), checkDrawerViewAbsoluteGravity(Gravity.LEFT));
+        if (predictedLeft != left) {
+            vDrawer.offsetLeftAndRight(predictedLeft - left);
+            mPredictedDx = predictedLeft - left;
+            onPredictionChanged();
+        }
+    }
+
+    /**
+     * Moves the drawer back to the position known to the ViewDragHelper.
+     */
+    private void revertDragPrediction() {
+        if (mPredictedDx != 0) {
+            getDrawerView().offsetLeftAndRight(-mPredictedDx);
+            mPredictedDx = 0;
+            onPredictionChanged();
+        }
+    }
+
+    /**
+     * Makes everything which follows the drawn position of the drawer follow the prediction too.
+     */
+    private void onPredictionChanged() {
+        updateContentTransform();
+        updateScrim();
+        invalidate();
+    }
+
+    private void resetDragPrediction() {
+        revertDragPrediction();
+        mLastDragTime = 0;
+        mUnbufferedDispatchRequested = false;
+    }
+
+    private void updateSnapshotCallbacks(boolean register) {
+        if (mSnapshotCallbacksRegistered == register) return;
+        mSnapshotCallbacksRegistered = register;
+        final Context appContext = getContext().getApplicationContext();
+        if (register) {
+            appContext.registerComponentCallbacks(mSnapshotTrimCallbacks);
+        } else {
+            appContext.unregisterComponentCallbacks(mSnapshotTrimCallbacks);
+        }
+    }
+
+    /**
+     * @return true if the content is moved by the content transformer rather than on the canvas
+     */
+    private boolean usesContentTransformer() {
+        return mContentTransformer != null && !mDocked;
     }
 
     private float getDrawerViewOffset() {
-        return ((LayoutParams) getDrawerView().getLayoutParams()).onScreen;
+        return getDrawerLayoutParams().onScreen;
+    }
+
+    /**
+     * @return LayoutParams of the drawer view. The cast result is cached and only refreshed
+     *         when the drawer view gets a new LayoutParams instance.
+     */
+    private LayoutParams getDrawerLayoutParams() {
+        final ViewGroup.LayoutParams lp = getDrawerView().getLayoutParams();
+        if (lp != mDrawerLp) {
+            mDrawerLp = (LayoutParams) lp;
+            mDrawerAbsGravity = Gravity.NO_GRAVITY;
+        }
+        return mDrawerLp;
     }
 
 
     private void moveDrawerToOffset(float slideOffset) {
+        revertDragPrediction();
         final View drawerView = getDrawerView();
         final float oldOffset = getDrawerViewOffset();
         final int width = drawerView.getWidth();
@@ -476,11 +2123,111 @@ public class SideSwipePanelLayout extends ViewGroup {
 
         drawerView.offsetLeftAndRight(checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? dx : -dx);
         setDrawerViewOffset(slideOffset);
+        updateContentTransform();
+    }
+
+    /**
+     * Moves the drawer to the given offset and updates its visibility, as the
+     * ViewDragHelper's settling would do.
+     */
+    private void applyDrawerOffset(float slideOffset) {
+        final View vDrawer = getDrawerView();
+        final int visibility = (slideOffset > 0) ? VISIBLE : INVISIBLE;
+        if (vDrawer.getVisibility() != visibility) {
+            vDrawer.setVisibility(visibility);
+        }
+        moveDrawerToOffset(slideOffset);
+        invalidate();
+    }
+
+    /**
+     * @return The left position of the drawer view for the given offset. Mirrors onLayout().
+     */
+    private int getDrawerLeftForOffset(float slideOffset) {
+        return DrawerMath.drawerLeftForOffset(slideOffset, getDrawerView().getWidth(), getWidth(), checkDrawerViewAbsoluteGravity(Gravity.LEFT));
+    }
+
+    /**
+     * Settles the drawer at the given offset as requested by the settle policy.
+     *
+     * @param velocity Velocity towards opening, pixels per second
+     * @param fromRelease Whether this is called from the ViewDragHelper's onViewReleased()
+     */
+    private void settleDrawerTo(float targetOffset, float velocity, boolean fromRelease) {
+        final View vDrawer = getDrawerView();
+        final float offset = getDrawerViewOffset();
+        final int duration = (targetOffset == offset) ? 0 : mSettlePolicy.computeSettleDuration(offset, targetOffset, velocity, vDrawer.getWidth());
+        if (duration > 0) {
+            startOffsetAnimation(targetOffset, duration, mSettlePolicy.getInterpolator());
+        } else if (fromRelease) {
+            mDragger.settleCapturedViewAt(getDrawerLeftForOffset(targetOffset), vDrawer.getTop());
+            invalidate();
+        } else if (mDragger.smoothSlideViewTo(vDrawer, getDrawerLeftForOffset(targetOffset), vDrawer.getTop())) {
+            invalidate();
+        }
+    }
+
+    private void startOffsetAnimation(float targetOffset, int duration, @Nullable Interpolator interpolator) {
+        mOffsetAnimFrom = getDrawerViewOffset();
+        mOffsetAnimTo = targetOffset;
+        mOffsetAnimStartTime = AnimationUtils.currentAnimationTimeMillis();
+        mOffsetAnimDuration = duration;
+        mOffsetAnimInterpolator = interpolator;
+        mOffsetAnimRunning = true;
+        updateDrawerState(STATE_SETTLING);
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Stops the ViewDragHelper settling leaving the drawer where it is. Unlike
+     * ViewDragHelper.abort() it does not jump to the end of the settle.
+     */
+    private void stopDraggerSettling() {
+        if (mDragger.getViewDragState() == STATE_SETTLING) {
+            final View vDrawer = getDrawerView();
+            // A settle to the current position stops the scroller and goes idle at once
+            mDragger.smoothSlideViewTo(vDrawer, vDrawer.getLeft(), vDrawer.getTop());
+        }
+    }
+
+    /**
+     * Stops the offset animation leaving the drawer where it is.
+     */
+    private void stopOffsetAnimation() {
+        if (mOffsetAnimRunning) {
+            mOffsetAnimRunning = false;
+            updateDrawerState(mDragger.getViewDragState());
+        }
+    }
+
+    /**
+     * Performs one frame of the offset animation.
+     * @return true if the animation is still running
+     */
+    private boolean stepOffsetAnimation() {
+        final long elapsed = AnimationUtils.currentAnimationTimeMillis() - mOffsetAnimStartTime;
+        final float fraction = Math.min(1f, (float) elapsed / mOffsetAnimDuration);
+        final float interpolated = (mOffsetAnimInterpolator == null) ? fraction : mOffsetAnimInterpolator.getInterpolation(fraction);
+        final boolean finished = fraction >= 1f;
+        applyDrawerOffset(finished ? mOffsetAnimTo : mOffsetAnimFrom + (mOffsetAnimTo - mOffsetAnimFrom) * interpolated);
+        if (finished) {
+            mOffsetAnimRunning = false;
+            updateDrawerState(mDragger.getViewDragState());
+        }
+        return !finished;
+    }
+
+    private int getAbsoluteHorizontalGravity(int gravity) {
+        return GravityCompat.getAbsoluteGravity(gravity, ViewCompat.getLayoutDirection(this)) & Gravity.HORIZONTAL_GRAVITY_MASK;
     }
 
-    private boolean checkDrawerGravity(int gravity) {
-        final int absHorizGravity = GravityCompat.getAbsoluteGravity(gravity, ViewCompat.getLayoutDirection(this)) & Gravity.HORIZONTAL_GRAVITY_MASK;
-        return checkDrawerViewAbsoluteGravity(absHorizGravity);
+    /**
+     * @return the absolute gravity of the given drawer view. Cached for the active drawer only.
+     */
+    private int getDrawerAbsoluteGravity(View drawer) {
+        return isDrawerView(drawer)
+                ? getDrawerViewAbsoluteGravity()
+                : GravityCompat.getAbsoluteGravity(((LayoutParams) drawer.getLayoutParams()).gravity, ViewCompat.getLayoutDirection(this));
     }
 
     /**
@@ -488,8 +2235,59 @@ public class SideSwipePanelLayout extends ViewGroup {
      *         to the current layout direction
      */
     private int getDrawerViewAbsoluteGravity() {
-        final int gravity = ((LayoutParams) getDrawerView().getLayoutParams()).gravity;
-        return GravityCompat.getAbsoluteGravity(gravity, ViewCompat.getLayoutDirection(this));
+        final int gravity = hasDrawer() ? getDrawerLayoutParams().gravity : mLazyDrawerGravity;
+        if (mDrawerAbsGravity == Gravity.NO_GRAVITY || gravity != mDrawerGravity) {
+            resolveDrawerEdge(gravity);
+        }
+        return mDrawerAbsGravity;
+    }
+
+    /**
+     * Resolves the absolute gravity of the drawer view and updates the edge tracked by the
+     * ViewDragHelper accordingly.
+     * @param gravity - gravity of the Drawer View
+     */
+    private void resolveDrawerEdge(int gravity) {
+        mDrawerGravity = gravity;
+        mDrawerAbsGravity = GravityCompat.getAbsoluteGravity(gravity, ViewCompat.getLayoutDirection(this));
+        if (getChildCount() > 2) {
+            // Drawers on both edges
+            mDragger.setEdgeTrackingEnabled(ViewDragHelper.EDGE_LEFT | ViewDragHelper.EDGE_RIGHT);
+        } else {
+            mDragger.setEdgeTrackingEnabled(((mDrawerAbsGravity & Gravity.LEFT) == Gravity.LEFT) ? ViewDragHelper.EDGE_LEFT : ViewDragHelper.EDGE_RIGHT);
+        }
+    }
+
+    @Override
+    public void onRtlPropertiesChanged(int layoutDirection) {
+        super.onRtlPropertiesChanged(layoutDirection);
+        mDrawerAbsGravity = Gravity.NO_GRAVITY;
+    }
+
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+        mDrawerLp = null;
+        mDrawerAbsGravity = Gravity.NO_GRAVITY;
+        mActiveDrawer = 1;
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+        if (child == mSnapshotView) {
+            child.setLayerType(LAYER_TYPE_NONE, null);
+            mSnapshotView = null;
+        }
+        if (mSlideDispatchPending) {
+            // The offset of the pending slide belonged to a drawer, which may be gone now
+            mSlideDispatchPending = false;
+            Choreographer.getInstance().removeFrameCallback(mSlideDispatchCallback);
+        }
+        mDrawerLp = null;
+        mDrawerAbsGravity = Gravity.NO_GRAVITY;
+        mActiveDrawer = 1;
+        updateScrim();
     }
 
     private boolean checkDrawerViewAbsoluteGravity(int checkFor) {
@@ -500,20 +2298,39 @@ public class SideSwipePanelLayout extends ViewGroup {
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        if (mDrawerFactory != null) {
+            Looper.myQueue().removeIdleHandler(mDrawerIdleCreator);
+        }
+        flushPendingSlide();
+        if (mMetricsTracker != null) {
+            mMetricsTracker.cancel();
+        }
+        updateSnapshotCallbacks(false);
         mFirstLayout = true;
     }
 
     @Override
     protected void onAttachedToWindow() {
-        mDragger.setEdgeTrackingEnabled(checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? ViewDragHelper.EDGE_LEFT : ViewDragHelper.EDGE_RIGHT);
-
         super.onAttachedToWindow();
+        if (mDrawerFactory != null) {
+            Looper.myQueue().addIdleHandler(mDrawerIdleCreator);
+        }
+        updateSnapshotCallbacks(mDrawerSnapshotEnabled);
         mFirstLayout = true;
     }
 
-    @SuppressLint("WrongConstant")
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (TRACE) TraceCompat.beginSection(TRACE_MEASURE);
+        try {
+            measureInternal(widthMeasureSpec, heightMeasureSpec);
+        } finally {
+            if (TRACE) TraceCompat.endSection();
+        }
+    }
+
+    @SuppressLint("WrongConstant")
+    private void measureInternal(int widthMeasureSpec, int heightMeasureSpec) {
         int widthMode = View.MeasureSpec.getMode(widthMeasureSpec);
         int heightMode = View.MeasureSpec.getMode(heightMeasureSpec);
         int widthSize = View.MeasureSpec.getSize(widthMeasureSpec);
@@ -538,75 +2355,200 @@ public class SideSwipePanelLayout extends ViewGroup {
         setMeasuredDimension(widthSize, heightSize);
 
 
+        checkChildCount();
+        final boolean sameSpecs = (widthMeasureSpec == mWidthMeasureSpec) && (heightMeasureSpec == mHeightMeasureSpec);
+        mWidthMeasureSpec = widthMeasureSpec;
+        mHeightMeasureSpec = heightMeasureSpec;
+
+        final boolean docked = (mDockedMinWidth > 0) && (widthSize >= mDockedMinWidth);
+        if (docked != mDocked) {
+            setDocked(docked);
+        }
+
         final int childCount = getChildCount();
-        if (childCount != 2) {
-            throw new IllegalStateException("This container is for 2 children only (content and drawer). Got children - " + childCount);
+        for (int i = 1; i < childCount; i++) {
+            final View vDrawer = getChildAt(i);
+            final LayoutParams lp = (LayoutParams) vDrawer.getLayoutParams();
+            // A closed drawer keeps its position off-screen as long as the layout's size is the same,
+            // so its subtree is not traversed until it is about to be moved.
+            // A lazy drawer, which has never been measured, waits for ensureDrawer() the same way.
+            final boolean waitsForFirstUse = lp.measureDeferred && (lp.widthSpec == -1);
+            lp.measureDeferred = sameSpecs && (waitsForFirstUse || canDeferDrawerMeasure(vDrawer, lp));
+            if (!lp.measureDeferred) {
+                measureDrawerView(vDrawer, lp, widthMeasureSpec, heightMeasureSpec);
+            }
+        }
+
+        // The drawer is measured by now, so the detents are known
+        if (mPendingDetentIndex >= 0 && hasDrawer()) {
+            final LayoutParams lp = getDrawerLayoutParams();
+            final float[] restOffsets = getRestOffsets();
+            final int detentIndex = Math.min(mPendingDetentIndex, restOffsets.length - 1);
+            lp.onScreen = restOffsets[detentIndex];
+            lp.openState = (lp.onScreen == 1) ? LayoutParams.FLAG_IS_OPENED : lp.openState;
+            mSettledDetentIndex = detentIndex;
+            mPendingDetentIndex = -1;
         }
 
-        for (int i = 0; i < 2; i++) {
-            final View child = getChildAt(i);
-            if (child.getVisibility() == GONE) {
-                continue;
+        mDockedInset = computeDockedInset();
+        final View vContent = getChildAt(0);
+        if (vContent.getVisibility() != GONE) {
+            final LayoutParams lp = (LayoutParams) vContent.getLayoutParams();
+            // Content views get measured at exactly the layout's size less the docked drawer.
+            final int contentWidthSpec = View.MeasureSpec.makeMeasureSpec(widthSize - lp.leftMargin - lp.rightMargin - mDockedInset, View.MeasureSpec.EXACTLY);
+            final int contentHeightSpec = View.MeasureSpec.makeMeasureSpec(heightSize - lp.topMargin - lp.bottomMargin, View.MeasureSpec.EXACTLY);
+            if (contentWidthSpec != mContentWidthSpec || contentHeightSpec != mContentHeightSpec || vContent.isLayoutRequested()) {
+                vContent.measure(contentWidthSpec, contentHeightSpec);
+                mContentWidthSpec = contentWidthSpec;
+                mContentHeightSpec = contentHeightSpec;
+                mContentMeasureCount ++;
             }
-            final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        }
 
-            if (i == 0) {
-                // Content views get measured at exactly the layout's size.
-                final int contentWidthSpec = View.MeasureSpec.makeMeasureSpec(widthSize - lp.leftMargin - lp.rightMargin, View.MeasureSpec.EXACTLY);
-                final int contentHeightSpec = View.MeasureSpec.makeMeasureSpec(heightSize - lp.topMargin - lp.bottomMargin, View.MeasureSpec.EXACTLY);
-                child.measure(contentWidthSpec, contentHeightSpec);
-            } else {
-                final @EdgeGravity int drawerAbsGravity = GravityCompat.getAbsoluteGravity(((LayoutParams) child.getLayoutParams()).gravity, ViewCompat.getLayoutDirection(this)) & Gravity.HORIZONTAL_GRAVITY_MASK;
-                // Note that the drawerAbsGravity is guaranteed here to be either LEFT or RIGHT
-                if (drawerAbsGravity == 0) {
-                    throw new IllegalStateException("The drawer Child view has wrong gravity. Only LEFT, RIGHT, START, STOP are allowed.");
-                } else if ((child.getBackground() == null) || (child.getBackground().getOpacity() != PixelFormat.OPAQUE)) {
-                    throw new IllegalStateException("The drawer Child view must have an opaque background");
-                } else if (lp.width == LayoutParams.WRAP_CONTENT) {
-                    throw new IllegalStateException("The drawer Child view must have layout_width specification either exact value or MATCH_PARENT");
-                } else {
-                    int drawerDesiredWidth = (lp.width < 0) ? lp.width : Math.min(lp.width, widthSize-mMinDrawerMargin);
+        if (childCount == 1) {
+            // Arm the edge tracking for the drawer which is not created yet
+            getDrawerViewAbsoluteGravity();
+        } else if (childCount == 3 && ((getDrawerAbsoluteGravity(getChildAt(1)) ^ getDrawerAbsoluteGravity(getChildAt(2))) & Gravity.HORIZONTAL_GRAVITY_MASK) == 0) {
+            throw new IllegalStateException("Two drawer Child views must be on the opposite edges");
+        }
+    }
 
-                    final int drawerWidthSpec = getChildMeasureSpec(widthMeasureSpec, mMinDrawerMargin + lp.leftMargin + lp.rightMargin, drawerDesiredWidth);
-                    final int drawerHeightSpec = getChildMeasureSpec(heightMeasureSpec, lp.topMargin + lp.bottomMargin, lp.height);
-                    child.measure(drawerWidthSpec, drawerHeightSpec);
+    private void setDocked(boolean docked) {
+        mDocked = docked;
+        if (mContentTransformer != null && getChildCount() > 1) {
+            if (docked) {
+                final View vContent = getContentView();
+                mContentTransformer.resetContent(vContent);
+                if (vContent.getLayerType() != LAYER_TYPE_NONE) {
+                    vContent.setLayerType(LAYER_TYPE_NONE, null);
                 }
+            } else {
+                updateContentTransform();
+                updateContentLayer(mDrawerState);
+            }
+        }
+        updateScrim();
+        if (mBackHandlingListener != null && !mBackProgressActive) {
+            updateBackHandling();
+        }
+    }
+
+    /**
+     * @return The width the content should be measured without: the visible width of the docked
+     *         drawer at rest. 0 while the drawer is in motion, so the content can be moved on the
+     *         canvas at its full width. An idle drawer in between the detents is in motion too,
+     *         as it is only left there by setDrawerOffset(), which an animator may call each frame.
+     */
+    private int computeDockedInset() {
+        if (!mDocked || !hasDrawer() || mDrawerState != STATE_IDLE || mOffsetAnimRunning
+                || findDetentIndex(getDrawerViewOffset(), true) < 0) {
+            return 0;
+        }
+        final View vDrawer = getDrawerView();
+        return (vDrawer.getVisibility() == GONE) ? 0 : (int) (vDrawer.getMeasuredWidth() * getDrawerLayoutParams().onScreen);
+    }
+
+    /**
+     * Re-measures the docked content when the drawer starts moving or comes to rest at a detent.
+     */
+    private void updateDockedInset() {
+        if (computeDockedInset() != mDockedInset) {
+            requestLayout();
+        }
+    }
+
+    private void checkChildCount() {
+        final int childCount = getChildCount();
+        if (childCount != 2 && childCount != 3 && !(childCount == 1 && mDrawerFactory != null)) {
+            throw new IllegalStateException("This container is for 2 or 3 children only (content and one or two drawers). Got children - " + childCount);
+        }
+    }
+
+    private void measureDrawerView(View child, LayoutParams lp, int widthMeasureSpec, int heightMeasureSpec) {
+        if (child.getVisibility() == GONE) {
+            return;
+        }
+        final @EdgeGravity int drawerAbsGravity = getDrawerAbsoluteGravity(child) & Gravity.HORIZONTAL_GRAVITY_MASK;
+        // Note that the drawerAbsGravity is guaranteed here to be either LEFT or RIGHT
+        if (drawerAbsGravity == 0) {
+            throw new IllegalStateException("The drawer Child view has wrong gravity. Only LEFT, RIGHT, START, STOP are allowed.");
+        } else if ((child.getBackground() == null) || (child.getBackground().getOpacity() != PixelFormat.OPAQUE)) {
+            throw new IllegalStateException("The drawer Child view must have an opaque background");
+        } else if (lp.width == LayoutParams.WRAP_CONTENT) {
+            throw new IllegalStateException("The drawer Child view must have layout_width specification either exact value or MATCH_PARENT");
+        } else {
+            final int widthSize = View.MeasureSpec.getSize(widthMeasureSpec);
+            int drawerDesiredWidth = (lp.width < 0) ? lp.width : Math.min(lp.width, widthSize-mMinDrawerMargin);
+
+            final int drawerWidthSpec = getChildMeasureSpec(widthMeasureSpec, mMinDrawerMargin + lp.leftMargin + lp.rightMargin, drawerDesiredWidth);
+            final int drawerHeightSpec = getChildMeasureSpec(heightMeasureSpec, lp.topMargin + lp.bottomMargin, lp.height);
+            if (drawerWidthSpec != lp.widthSpec || drawerHeightSpec != lp.heightSpec || child.isLayoutRequested()) {
+                child.measure(drawerWidthSpec, drawerHeightSpec);
+                lp.widthSpec = drawerWidthSpec;
+                lp.heightSpec = drawerHeightSpec;
+                mDrawerMeasureCount ++;
             }
         }
     }
 
+    /**
+     * @return true if the drawer has been measured already and now it is completely closed and not moving
+     */
+    private boolean canDeferDrawerMeasure(View drawer, LayoutParams lp) {
+        return (lp.widthSpec != -1) && (lp.onScreen == 0) && !lp.isPeeking && (lp.openState == LayoutParams.STATE_IS_CLOSED)
+                && (!isDrawerView(drawer) || ((mDrawerState == STATE_IDLE) && !mOffsetAnimRunning));
+    }
+
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        mInLayout = true;
-        final int width = r - l;
-        if (getChildCount() != 2) {
-            throw new IllegalStateException("This container is for 2 children only (content and drawer). Got children - "+getChildCount());
+        if (TRACE) TraceCompat.beginSection(TRACE_LAYOUT);
+        try {
+            layoutInternal(l, t, r, b);
+        } finally {
+            if (TRACE) TraceCompat.endSection();
         }
+    }
+
+    private void layoutInternal(int l, int t, int r, int b) {
+        mInLayout = true;
+        checkChildCount();
 
         // Layout Content View child
         View vContent = getChildAt(0);
         if (vContent.getVisibility() != GONE) {
             LayoutParams lp = (LayoutParams) vContent.getLayoutParams();
-            vContent.layout(lp.leftMargin, lp.topMargin, lp.leftMargin + vContent.getMeasuredWidth(), lp.topMargin + vContent.getMeasuredHeight());
+            final int contentLeft = lp.leftMargin + ((mDockedInset > 0 && checkDrawerViewAbsoluteGravity(Gravity.LEFT)) ? mDockedInset : 0);
+            if (layoutChildIfChanged(vContent, contentLeft, lp.topMargin, contentLeft + vContent.getMeasuredWidth(), lp.topMargin + vContent.getMeasuredHeight())) {
+                mContentLayoutCount ++;
+            }
+        }
+
+        // Layout Drawer View children
+        final int childCount = getChildCount();
+        for (int i = 1; i < childCount; i++) {
+            final View vDrawer = getChildAt(i);
+            final LayoutParams lp = (LayoutParams) vDrawer.getLayoutParams();
+            if (!lp.measureDeferred) {
+                layoutDrawerView(vDrawer, lp, r - l, b - t);
+            }
         }
 
-        // Layout Drawer View child
-        View vDrawer = getChildAt(1);
+        mInLayout = false;
+        mFirstLayout = false;
+    }
+
+    private void layoutDrawerView(View vDrawer, LayoutParams lp, int width, int height) {
         if (vDrawer.getVisibility() != GONE) {
-            LayoutParams lp = (LayoutParams) vDrawer.getLayoutParams();
+            final boolean isActive = isDrawerView(vDrawer);
             final int childWidth = vDrawer.getMeasuredWidth();
             final int childHeight = vDrawer.getMeasuredHeight();
-            int childLeft;
+            final int childLeft;
 
-            final float newOffset;
-            if (checkDrawerViewAbsoluteGravity(Gravity.LEFT)) {
-                childLeft = -childWidth + (int) (childWidth * lp.onScreen);
-                newOffset = (float) (childWidth + childLeft) / childWidth;
-            } else { // Right; onMeasure checked for us.
-                childLeft = width - (int) (childWidth * lp.onScreen);
-                newOffset = (float) (width - childLeft) / childWidth;
-            }
+            // Right if not left; onMeasure checked for us.
+            final boolean leftEdge = (getDrawerAbsoluteGravity(vDrawer) & Gravity.LEFT) == Gravity.LEFT;
+            childLeft = DrawerMath.drawerLeftForOffset(lp.onScreen, childWidth, width, leftEdge);
+            final float newOffset = DrawerMath.offsetForDrawerLeft(childLeft, childWidth, width, leftEdge);
 
             final boolean changeOffset = newOffset != lp.onScreen;
 
@@ -615,14 +2557,13 @@ public class SideSwipePanelLayout extends ViewGroup {
             switch (vgrav) {
                 default:
                 case Gravity.TOP: {
-                    vDrawer.layout(childLeft, lp.topMargin, childLeft + childWidth,
+                    layoutChildIfChanged(vDrawer, childLeft, lp.topMargin, childLeft + childWidth,
                             lp.topMargin + childHeight);
                     break;
                 }
 
                 case Gravity.BOTTOM: {
-                    final int height = b - t;
-                    vDrawer.layout(childLeft,
+                    layoutChildIfChanged(vDrawer, childLeft,
                             height - lp.bottomMargin - vDrawer.getMeasuredHeight(),
                             childLeft + childWidth,
                             height - lp.bottomMargin);
@@ -630,7 +2571,6 @@ public class SideSwipePanelLayout extends ViewGroup {
                 }
 
                 case Gravity.CENTER_VERTICAL: {
-                    final int height = b - t;
                     int childTop = (height - childHeight) / 2;
 
                     // Offset for margins. If things don't fit right because of
@@ -640,54 +2580,101 @@ public class SideSwipePanelLayout extends ViewGroup {
                     } else if (childTop + childHeight > height - lp.bottomMargin) {
                         childTop = height - lp.bottomMargin - childHeight;
                     }
-                    vDrawer.layout(childLeft, childTop, childLeft + childWidth,
+                    layoutChildIfChanged(vDrawer, childLeft, childTop, childLeft + childWidth,
                             childTop + childHeight);
                     break;
                 }
             }
 
             if (changeOffset) {
-                setDrawerViewOffset(newOffset);
+                if (isActive) {
+                    setDrawerViewOffset(newOffset);
+                } else {
+                    lp.onScreen = newOffset;
+                }
             }
 
             final int newVisibility = lp.onScreen > 0 ? VISIBLE : INVISIBLE;
             if (vDrawer.getVisibility() != newVisibility) {
                 vDrawer.setVisibility(newVisibility);
             }
+            if (isActive) {
+                // The layout has put the drawer back at its real position
+                mPredictedDx = 0;
+                updateContentTransform();
+                updateScrim();
+                // The offset may have been set without setDrawerViewOffset(), e.g. by
+                // openDrawer() before the first layout, the restore or a pending detent
+                if (mBackHandlingListener != null && !mBackProgressActive) {
+                    updateBackHandling();
+                }
+            }
         }
+    }
 
-
-        mInLayout = false;
-        mFirstLayout = false;
+    /**
+     * Lays out a child only if its current bounds differ from the requested ones or the child
+     * has requested a layout by itself. Current bounds are checked rather than the ones of the
+     * previous layout, because the drawer is moved by the ViewDragHelper without layout.
+     *
+     * @return true if the child was actually laid out
+     */
+    private boolean layoutChildIfChanged(View child, int l, int t, int r, int b) {
+        if (child.isLayoutRequested() || child.getLeft() != l || child.getTop() != t || child.getRight() != r || child.getBottom() != b) {
+            child.layout(l, t, r, b);
+            return true;
+        }
+        return false;
     }
 
     @Override
     public void requestLayout() {
         if (!mInLayout) {
             super.requestLayout();
+            if (mMetricsTracker != null) {
+                mMetricsTracker.onRequestLayout();
+            }
         }
     }
 
     @Override
     public void computeScroll() {
-        final int childCount = getChildCount();
-        float scrimOpacity = 0;
-        for (int i = 0; i < childCount; i++) {
-            final float onscreen = ((LayoutParams) getChildAt(i).getLayoutParams()).onScreen;
-            scrimOpacity = Math.max(scrimOpacity, onscreen);
+        if (TRACE) TraceCompat.beginSection(TRACE_COMPUTE_SCROLL);
+        try {
+            computeScrollInternal();
+        } finally {
+            if (TRACE) TraceCompat.endSection();
         }
-        mScrimOpacity = scrimOpacity;
+    }
 
+    private void computeScrollInternal() {
+        // The scrim follows the drawer offset, see updateScrim()
         if (mDragger.continueSettling(true)) {
             ViewCompat.postInvalidateOnAnimation(this);
+        } else if (mOffsetAnimRunning && stepOffsetAnimation()) {
+            ViewCompat.postInvalidateOnAnimation(this);
         }
     }
 
 
     @Override
     protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (TRACE) TraceCompat.beginSection(TRACE_DRAW_CHILD);
+        try {
+            if (mMetricsTracker == null || !mMetricsTracker.isTracking()) {
+                return drawChildInternal(canvas, child, drawingTime);
+            }
+            final long start = System.nanoTime();
+            final boolean result = drawChildInternal(canvas, child, drawingTime);
+            mMetricsTracker.onDrawChild(System.nanoTime() - start);
+            return result;
+        } finally {
+            if (TRACE) TraceCompat.endSection();
+        }
+    }
 
-        if (isContentView(child)) {
+    private boolean drawChildInternal(Canvas canvas, View child, long drawingTime) {
+        if (isContentView(child) && hasDrawer()) {
             final int restoreCount = canvas.save();
 
             final int width = getWidth();
@@ -695,27 +2682,36 @@ public class SideSwipePanelLayout extends ViewGroup {
             int clipLeft = 0, clipRight = getWidth();
             View vDr = getDrawerView();
             if (vDr.getVisibility() == View.VISIBLE) {
+                // A docked content is laid out next to the resting drawer already
+                final int inset = mDockedInset;
                 if (checkDrawerViewAbsoluteGravity(Gravity.LEFT)) {
                     clipLeft = vDr.getRight();
-                    canvas.translate(clipLeft,0f);
-                    canvas.clipRect(0, 0, clipRight - clipLeft, height);
+                    if (!usesContentTransformer()) {
+                        canvas.translate(clipLeft - inset, 0f);
+                        canvas.clipRect(inset, 0, inset + clipRight - clipLeft, height);
+                    }
                 } else {
                     clipRight = vDr.getLeft();
-                    canvas.translate(clipRight - width,0f);
-                    canvas.clipRect(width - clipRight, 0, width, height);
+                    if (!usesContentTransformer()) {
+                        canvas.translate(clipRight - width + inset, 0f);
+                        canvas.clipRect(width - inset - clipRight, 0, width - inset, height);
+                    }
                 }
 
             }
 
+            if (clipRight <= clipLeft) {
+                // The content is completely covered by the drawer. As the drawer background is
+                // guaranteed to be opaque (see onMeasure()), there is nothing to draw at all.
+                canvas.restoreToCount(restoreCount);
+                mSkippedContentDrawCount ++;
+                return false;
+            }
+
             final boolean result = super.drawChild(canvas, child, drawingTime);
             canvas.restoreToCount(restoreCount);
 
-            if (mScrimOpacity > 0) {
-                final int baseAlpha = (mScrimColor & 0xff000000) >>> 24;
-                final int imag = (int) (baseAlpha * mScrimOpacity);
-                final int color = imag << 24 | (mScrimColor & 0x00ffffff);
-                mScrimPaint.setColor(color);
-
+            if (mScrimOpacity > 0 && mScrimMode == SCRIM_MODE_CANVAS) {
                 canvas.drawRect(clipLeft, 0, clipRight, height, mScrimPaint);
             }
             return result;
@@ -728,31 +2724,56 @@ public class SideSwipePanelLayout extends ViewGroup {
         return (child != null) && (getChildAt(0) == child);
     }
 
+    /**
+     * @return true if the child is the active drawer
+     */
     boolean isDrawerView(@Nullable View child) {
-        return (child != null) && (getChildAt(1) == child);
+        return (child != null) && (getChildAt(mActiveDrawer) == child);
     }
 
-    @SuppressWarnings("ShortCircuitBoolean")
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
+        if (TRACE) TraceCompat.beginSection(TRACE_INTERCEPT);
+        try {
+            return interceptTouchEventInternal(ev);
+        } finally {
+            if (TRACE) TraceCompat.endSection();
+        }
+    }
+
+    @SuppressWarnings("ShortCircuitBoolean")
+    private boolean interceptTouchEventInternal(MotionEvent ev) {
         final int action = ev.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN) {
+            // A new gesture. A nested scroll of the previous one may have missed its stop, e.g.
+            // when the child was removed mid-gesture, and must not block this one.
+            mNestedScrollAccepted = false;
+        }
 
-        final boolean interceptForDrag = mDragger.shouldInterceptTouchEvent(ev);
+        // A child which scrolls horizontally hands the drag over by the nested scrolling, so its
+        // touch stream must not be stolen.
+        boolean interceptForDrag = !mNestedScrollAccepted && mDragger.shouldInterceptTouchEvent(ev);
 
         boolean interceptForTap = false;
 
         switch (action) {
             case MotionEvent.ACTION_DOWN:
+                if (TRACE) traceMarker(TRACE_GESTURE_DOWN);
                 final float x = ev.getX();
                 final float y = ev.getY();
                 mInitialMotionX = x;
                 mInitialMotionY = y;
-                if (mScrimOpacity > 0) {
-                    final View child = mDragger.findTopChildUnder((int) x, (int) y);
-                    if (child != null && isContentView(child)) {
-                        interceptForTap = true;
-                    }
+                final View child = (mOffsetAnimRunning || mScrimOpacity > 0) ? mDragger.findTopChildUnder((int) x, (int) y) : null;
+                if (mOffsetAnimRunning && mLockMode == LOCK_MODE_UNLOCKED && isDrawerView(child)) {
+                    // Catch the drawer in the middle of a settle, as the ViewDragHelper does
+                    mOffsetAnimRunning = false;
+                    mDragger.captureChildView(getDrawerView(), ev.getPointerId(0));
+                }
+                if (mScrimOpacity > 0 && child != null && isContentView(child)) {
+                    interceptForTap = true;
                 }
+                mSwipeZoneEdges = findSwipeZoneEdges(x);
+                mSwipeZonePointerId = ev.getPointerId(0);
                 mChildrenCanceledTouch = false;
                 break;
 
@@ -761,12 +2782,16 @@ public class SideSwipePanelLayout extends ViewGroup {
                 if (mDragger.checkTouchSlop(ViewDragHelper.DIRECTION_ALL)) {
                     mDraggerCallback.removeCallbacks();
                 }
+                if (mSwipeZoneEdges != 0 && !interceptForDrag) {
+                    interceptForDrag = captureFromSwipeZone(ev);
+                }
                 break;
             }
 
             case MotionEvent.ACTION_CANCEL:
             case MotionEvent.ACTION_UP: {
                 closeDrawers(true);
+                mSwipeZoneEdges = 0;
                 mChildrenCanceledTouch = false;
             }
         }
@@ -774,8 +2799,70 @@ public class SideSwipePanelLayout extends ViewGroup {
         return interceptForDrag || interceptForTap || hasPeekingDrawer() || mChildrenCanceledTouch;
     }
 
+    /**
+     * @return The edges, whose drawer a gesture started at x may swipe out, or 0. Only the
+     *         geometry is checked, so there is no hit testing of the children.
+     */
+    private int findSwipeZoneEdges(float x) {
+        final int zoneWidth = getSwipeZoneWidth();
+        if (zoneWidth <= 0 || mLockMode != LOCK_MODE_UNLOCKED) {
+            return 0;
+        } else if (hasDrawer() && (getDrawerViewOffset() > 0 || mDrawerState != STATE_IDLE || mOffsetAnimRunning)) {
+            // A visible drawer is dragged by itself
+            return 0;
+        }
+        int edges = 0;
+        if (x < zoneWidth && hasDrawerAtEdge(Gravity.LEFT)) {
+            edges |= Gravity.LEFT;
+        }
+        if (x >= getWidth() - zoneWidth && hasDrawerAtEdge(Gravity.RIGHT)) {
+            edges |= Gravity.RIGHT;
+        }
+        return edges;
+    }
+
+    /**
+     * Decides the direction of a gesture started in the swipe zone once it has moved beyond the
+     * touch slop. A horizontal gesture towards the opening direction of a drawer captures it.
+     *
+     * @return true if the drawer has been captured
+     */
+    private boolean captureFromSwipeZone(MotionEvent ev) {
+        final int pointerIndex = ev.findPointerIndex(mSwipeZonePointerId);
+        if (pointerIndex < 0 || mNestedScrollAccepted) {
+            mSwipeZoneEdges = 0;
+            return false;
+        }
+        final float dx = ev.getX(pointerIndex) - mInitialMotionX;
+        final float dy = ev.getY(pointerIndex) - mInitialMotionY;
+        final int slop = mDragger.getTouchSlop();
+        if (dx * dx + dy * dy < slop * slop) {
+            // Not decided yet
+            return false;
+        }
+
+        // The direction is locked now, whichever way it goes
+        final int swipeEdges = mSwipeZoneEdges;
+        mSwipeZoneEdges = 0;
+        if (Math.abs(dx) <= Math.abs(dy)) {
+            return false;
+        }
+        final int edge = (dx > 0) ? Gravity.LEFT : Gravity.RIGHT;
+        if ((swipeEdges & edge) != edge || mLockMode != LOCK_MODE_UNLOCKED || !ensureDrawerAt(edge)) {
+            return false;
+        }
+        mDragger.captureChildView(getDrawerView(), mSwipeZonePointerId);
+        return true;
+    }
+
+    private boolean hasDrawerAtEdge(int absHorizGravity) {
+        return (mDrawerFactory != null)
+                ? getAbsoluteHorizontalGravity(mLazyDrawerGravity) == absHorizGravity
+                : findDrawerIndex(absHorizGravity) >= 0;
+    }
+
     private boolean hasPeekingDrawer() {
-        return ((LayoutParams) getDrawerView().getLayoutParams()).isPeeking;
+        return hasDrawer() && getDrawerLayoutParams().isPeeking;
     }
 
     @Override
@@ -818,7 +2905,23 @@ public class SideSwipePanelLayout extends ViewGroup {
     @SuppressLint("ClickableViewAccessibility")
     @Override
     public boolean onTouchEvent(MotionEvent ev) {
-        mDragger.processTouchEvent(ev);
+        if (TRACE) TraceCompat.beginSection(TRACE_TOUCH);
+        try {
+            return touchEventInternal(ev);
+        } finally {
+            if (TRACE) TraceCompat.endSection();
+        }
+    }
+
+    private boolean touchEventInternal(MotionEvent ev) {
+        if (mLowLatencyDragEnabled) {
+            // The ViewDragHelper moves the drawer from the real position, not the predicted one
+            revertDragPrediction();
+            mDragger.processTouchEvent(ev);
+            predictDrag(ev);
+        } else {
+            mDragger.processTouchEvent(ev);
+        }
 
         final int action = ev.getAction();
 
@@ -832,7 +2935,20 @@ public class SideSwipePanelLayout extends ViewGroup {
                 break;
             }
 
+            case MotionEvent.ACTION_MOVE: {
+                // The content takes no touches, so the gesture comes here rather than through
+                // the intercept, and the swipe zone is decided the same way
+                if (mSwipeZoneEdges != 0 && mDragger.getViewDragState() != STATE_DRAGGING) {
+                    captureFromSwipeZone(ev);
+                }
+                break;
+            }
+
             case MotionEvent.ACTION_UP: {
+                mSwipeZoneEdges = 0;
+                if (mMetricsTracker != null) {
+                    mMetricsTracker.onTouchReleased();
+                }
                 final float x = ev.getX();
                 final float y = ev.getY();
                 boolean peekingOnly = true;
@@ -843,7 +2959,8 @@ public class SideSwipePanelLayout extends ViewGroup {
                     final int slop = mDragger.getTouchSlop();
                     if (dx * dx + dy * dy < slop * slop) {
                         // Taps close a dimmed open drawer but only if it isn't locked open.
-                        peekingOnly = isDrawerOpen() && (mLockMode == LOCK_MODE_LOCKED_OPEN);
+                        // A docked drawer does not dim the content and is never closed by a tap.
+                        peekingOnly = mDocked || (isDrawerOpen() && mLockMode == LOCK_MODE_LOCKED_OPEN);
                     }
                 }
                 closeDrawers(peekingOnly);
@@ -852,6 +2969,10 @@ public class SideSwipePanelLayout extends ViewGroup {
 
             case MotionEvent.ACTION_CANCEL: {
                 //closeDrawers(true);
+                mSwipeZoneEdges = 0;
+                if (mMetricsTracker != null) {
+                    mMetricsTracker.onTouchReleased();
+                }
                 mChildrenCanceledTouch = false;
                 break;
             }
@@ -866,21 +2987,139 @@ public class SideSwipePanelLayout extends ViewGroup {
             // If we have an edge touch we want to skip this and track it for later instead.
             super.requestDisallowInterceptTouchEvent(disallowIntercept);
         }
-        if (disallowIntercept) {
+        if (disallowIntercept && !mNestedScrollAccepted) {
+            // A nested scrolling child continues a peek into the drag by over-scroll instead
             closeDrawers(true);
         }
     }
 
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes, int type) {
+        return ((axes & ViewCompat.SCROLL_AXIS_HORIZONTAL) != 0) && (type == ViewCompat.TYPE_TOUCH)
+                && (mLockMode == LOCK_MODE_UNLOCKED) && (mDragger.getViewDragState() != STATE_DRAGGING);
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes, int type) {
+        mNestedScrollingHelper.onNestedScrollAccepted(child, target, axes, type);
+        mNestedScrollAccepted = true;
+        mNestedFlingVelocity = 0;
+        mDraggerCallback.removeCallbacks();
+    }
+
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed, int type) {
+        if (!mNestedDragging) return;
+        // Moving back within the same gesture retracts the drawer before the child scrolls again
+        final int toOpen = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? -dx : dx;
+        if (toOpen < 0) {
+            consumed[0] = dx - nestedDragDrawerBy(dx);
+        }
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed, int type) {
+        if (dxUnconsumed == 0 || type != ViewCompat.TYPE_TOUCH) return;
+        if (!mNestedDragging) {
+            // The child is at its edge. Scrolling to the left (dx < 0) brings out the left drawer.
+            if (!ensureDrawerAt((dxUnconsumed < 0) ? Gravity.LEFT : Gravity.RIGHT)) return;
+
+            stopDraggerSettling();
+            stopOffsetAnimation();
+            getDrawerLayoutParams().isPeeking = false;
+            mNestedDragging = true;
+            updateDrawerState(STATE_DRAGGING);
+        }
+        nestedDragDrawerBy(dxUnconsumed);
+    }
+
+    /**
+     * Moves the drawer by the scroll distance of a nested scrolling child.
+     * @return The part of the distance not used because the drawer has reached its limit
+     */
+    private int nestedDragDrawerBy(int dx) {
+        final int width = getDrawerView().getWidth();
+        if (width == 0) return dx;
+        final int toOpen = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? -dx : dx;
+        final int position = Math.round(width * getDrawerViewOffset());
+        final int newPosition = Math.max(0, Math.min(position + toOpen, width));
+        applyDrawerOffset((float) newPosition / width);
+        final int unused = toOpen - (newPosition - position);
+        return checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? -unused : unused;
+    }
+
+    @Override
+    public boolean onNestedPreFling(@NonNull View target, float velocityX, float velocityY) {
+        if (!mNestedDragging) return false;
+        // The drawer consumes the fling. Positive velocity is directed to open the drawer.
+        mNestedFlingVelocity = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? -velocityX : velocityX;
+        return true;
+    }
+
+    @Override
+    public boolean onNestedFling(@NonNull View target, float velocityX, float velocityY, boolean consumed) {
+        return false;
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target, int type) {
+        mNestedScrollingHelper.onStopNestedScroll(target, type);
+        mNestedScrollAccepted = false;
+        if (mNestedDragging) {
+            mNestedDragging = false;
+            // Apply the fling threshold of the ViewDragHelper, as the settle policy expects
+            final float velocity = (Math.abs(mNestedFlingVelocity) < mDragger.getMinVelocity()) ? 0 : mNestedFlingVelocity;
+            final float offset = getDrawerViewOffset();
+            final float targetOffset = mSettlePolicy.computeTargetOffset(offset, velocity, getDrawerView().getWidth(), getRestOffsets());
+            settleDrawerTo(targetOffset, velocity, false);
+            updateDrawerState(mDragger.getViewDragState());
+        }
+    }
+
+    @Override
+    public int getNestedScrollAxes() {
+        return mNestedScrollingHelper.getNestedScrollAxes();
+    }
+
+    @Override
+    public boolean onStartNestedScroll(@NonNull View child, @NonNull View target, int axes) {
+        return onStartNestedScroll(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScrollAccepted(@NonNull View child, @NonNull View target, int axes) {
+        onNestedScrollAccepted(child, target, axes, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedPreScroll(@NonNull View target, int dx, int dy, @NonNull int[] consumed) {
+        onNestedPreScroll(target, dx, dy, consumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onNestedScroll(@NonNull View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+        onNestedScroll(target, dxConsumed, dyConsumed, dxUnconsumed, dyUnconsumed, ViewCompat.TYPE_TOUCH);
+    }
+
+    @Override
+    public void onStopNestedScroll(@NonNull View target) {
+        onStopNestedScroll(target, ViewCompat.TYPE_TOUCH);
+    }
+
     private void closeDrawers(boolean peekingOnly) {
+        if (!hasDrawer()) {
+            mDraggerCallback.removeCallbacks();
+            return;
+        }
         boolean needsInvalidate = false;
 
         View vDrawer = getDrawerView();
-        final LayoutParams lp = (LayoutParams) vDrawer.getLayoutParams();
+        final LayoutParams lp = getDrawerLayoutParams();
         if (!(peekingOnly && !lp.isPeeking)) {
-            final int childWidth = vDrawer.getWidth();
-
-            int closedXPos = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? -childWidth : getWidth();
-            needsInvalidate |= mDragger.smoothSlideViewTo(vDrawer, closedXPos, vDrawer.getTop());
+            stopOffsetAnimation();
+            // A peeking drawer closes completely, otherwise the drawer returns to the lowest detent
+            final float target = lp.isPeeking ? 0 : Math.min(lp.onScreen, getBaseRestOffset());
+            needsInvalidate |= mDragger.smoothSlideViewTo(vDrawer, getDrawerLeftForOffset(target), vDrawer.getTop());
 
             lp.isPeeking = false;
         }
@@ -892,24 +3131,58 @@ public class SideSwipePanelLayout extends ViewGroup {
         }
     }
 
+    /**
+     * Open the drawer at the given edge. The other drawer, if it is out, is closed immediately
+     * as only one drawer may be out at a time.
+     *
+     * @param gravity Edge of the drawer. One of LEFT, RIGHT, START or END.
+     * @param animate Whether opening of the drawer should be animated.
+     */
+    public void openDrawer(@EdgeGravity int gravity, boolean animate) {
+        final int absHorizGravity = getAbsoluteHorizontalGravity(gravity);
+        if (hasDrawer() && !checkDrawerViewAbsoluteGravity(absHorizGravity) && findDrawerIndex(absHorizGravity) > 0) {
+            mDragger.abort();
+            closeDrawer(false);
+        }
+        if (ensureDrawerAt(absHorizGravity)) {
+            openDrawer(animate);
+        }
+    }
+
+    /**
+     * Close the drawer at the given edge.
+     *
+     * @param gravity Edge of the drawer. One of LEFT, RIGHT, START or END.
+     * @param animate Whether closing of the drawer should be animated.
+     */
+    public void closeDrawer(@EdgeGravity int gravity, boolean animate) {
+        // Drawers other than the active one are always closed
+        if (hasDrawer() && checkDrawerViewAbsoluteGravity(getAbsoluteHorizontalGravity(gravity))) {
+            closeDrawer(animate);
+        }
+    }
+
     /**
      * Open the specified drawer view.
 
      * @param animate Whether opening of the drawer should be animated.
      */
     public void openDrawer(boolean animate) {
+        if (!ensureDrawer()) return;
         View drawerView = getDrawerView();
 
-        final LayoutParams lp = (LayoutParams) drawerView.getLayoutParams();
+        final LayoutParams lp = getDrawerLayoutParams();
         if (mFirstLayout) {
             lp.onScreen = 1.f;
             lp.openState = LayoutParams.FLAG_IS_OPENED;
         } else if (animate) {
+            stopOffsetAnimation();
             lp.openState |= LayoutParams.FLAG_IS_OPENING;
 
             int openedXPos = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? 0 : getWidth() - drawerView.getWidth();
             mDragger.smoothSlideViewTo(drawerView, openedXPos, drawerView.getTop());
         } else {
+            stopOffsetAnimation();
             moveDrawerToOffset(1.f);
             updateDrawerState(STATE_IDLE);
             setDrawerVisiblity(VISIBLE);
@@ -919,6 +3192,8 @@ public class SideSwipePanelLayout extends ViewGroup {
 
     private void setDrawerVisiblity(int visibility) {
         getDrawerView().setVisibility(visibility);
+        updateContentTransform();
+        updateScrim();
     }
 
 
@@ -929,18 +3204,21 @@ public class SideSwipePanelLayout extends ViewGroup {
      * @param animate Whether closing of the drawer should be animated.
      */
     public void closeDrawer(boolean animate) {
+        if (!hasDrawer()) return;
         View vDrawer = getDrawerView();
 
-        final LayoutParams lp = (LayoutParams) vDrawer.getLayoutParams();
+        final LayoutParams lp = getDrawerLayoutParams();
         if (mFirstLayout) {
             lp.onScreen = 0.f;
             lp.openState = 0;
         } else if (animate) {
+            stopOffsetAnimation();
             lp.openState |= LayoutParams.FLAG_IS_CLOSING;
 
             int closedXPos = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? -vDrawer.getWidth() : getWidth();
             mDragger.smoothSlideViewTo(vDrawer, closedXPos, vDrawer.getTop());
         } else {
+            stopOffsetAnimation();
             moveDrawerToOffset(0.f);
             updateDrawerState(STATE_IDLE);
             setDrawerVisiblity(INVISIBLE);
@@ -950,6 +3228,57 @@ public class SideSwipePanelLayout extends ViewGroup {
 
 
 
+    /**
+     * Move the drawer to the given offset immediately, stopping any settle or animation of it.
+     * Can be driven by an external animator to move the drawer in the same frame loop with other
+     * views, e.g. from a ValueAnimator update listener or a MotionLayout transition listener.
+     *
+     * @param slideOffset The new offset of the drawer, from 0-1
+     */
+    public void setDrawerOffset(float slideOffset) {
+        if (!ensureDrawer()) return;
+        final float offset = Math.max(0f, Math.min(slideOffset, 1f));
+        final LayoutParams lp = getDrawerLayoutParams();
+        if (mFirstLayout) {
+            lp.onScreen = offset;
+            if (offset == 0) {
+                lp.openState = LayoutParams.STATE_IS_CLOSED;
+            } else if (offset == 1) {
+                lp.openState = LayoutParams.FLAG_IS_OPENED;
+            }
+            return;
+        }
+        stopDraggerSettling();
+        stopOffsetAnimation();
+        applyDrawerOffset(offset);
+        updateDrawerState(STATE_IDLE);
+    }
+
+    /**
+     * @return The offset of the drawer, from 0-1
+     */
+    public float getDrawerOffset() {
+        return hasDrawer() ? getDrawerViewOffset() : 0;
+    }
+
+    /**
+     * Animate the drawer to the given offset. The animation runs in computeScroll() of this
+     * layout, so it is synchronized with the frame and no objects are allocated for it.
+     *
+     * @param slideOffset The target offset of the drawer, from 0-1
+     * @param duration Duration of the animation, ms. 0 moves the drawer immediately.
+     * @param interpolator Interpolator of the animation or null for a linear one
+     */
+    public void animateDrawerTo(float slideOffset, int duration, @Nullable Interpolator interpolator) {
+        if (mFirstLayout || duration <= 0) {
+            setDrawerOffset(slideOffset);
+            return;
+        }
+        if (!ensureDrawer()) return;
+        stopDraggerSettling();
+        startOffsetAnimation(Math.max(0f, Math.min(slideOffset, 1f)), duration, interpolator);
+    }
+
     /**
      * Check if the given drawer view is currently in an open state.
      * To be considered "open" the drawer must have settled into its fully
@@ -959,8 +3288,7 @@ public class SideSwipePanelLayout extends ViewGroup {
      * @return true if the given drawer view is in an open state
      */
     public boolean isDrawerOpen() {
-        LayoutParams drawerLp = (LayoutParams) getChildAt(1).getLayoutParams();
-        return (drawerLp.openState & LayoutParams.FLAG_IS_OPENED) == 1;
+        return hasDrawer() && (getDrawerLayoutParams().openState & LayoutParams.FLAG_IS_OPENED) == 1;
     }
 
     /**
@@ -970,7 +3298,25 @@ public class SideSwipePanelLayout extends ViewGroup {
      * @return true if the given drawer is visible on-screen
      */
     public boolean isDrawerVisible() {
-        return ((LayoutParams) getChildAt(1).getLayoutParams()).onScreen > 0;
+        return hasDrawer() && getDrawerLayoutParams().onScreen > 0;
+    }
+
+    /**
+     * Same as {@link #isDrawerOpen()} for the drawer at the given edge.
+     *
+     * @param gravity Edge of the drawer. One of LEFT, RIGHT, START or END.
+     */
+    public boolean isDrawerOpen(@EdgeGravity int gravity) {
+        return hasDrawer() && checkDrawerViewAbsoluteGravity(getAbsoluteHorizontalGravity(gravity)) && isDrawerOpen();
+    }
+
+    /**
+     * Same as {@link #isDrawerVisible()} for the drawer at the given edge.
+     *
+     * @param gravity Edge of the drawer. One of LEFT, RIGHT, START or END.
+     */
+    public boolean isDrawerVisible(@EdgeGravity int gravity) {
+        return hasDrawer() && checkDrawerViewAbsoluteGravity(getAbsoluteHorizontalGravity(gravity)) && isDrawerVisible();
     }
 
 
@@ -1031,9 +3377,17 @@ public class SideSwipePanelLayout extends ViewGroup {
         }
     }
 
+    /**
+     * @return true if the drawer is out further than the lowest detent and not docked, i.e. it can
+     *         be closed by the back key
+     */
+    private boolean isDrawerAboveBaseDetent() {
+        return hasDrawer() && !mDocked && getDrawerViewOffset() > getBaseRestOffset();
+    }
+
     @Override
     public boolean onKeyDown(int keyCode, KeyEvent event) {
-        if (keyCode == KeyEvent.KEYCODE_BACK && isDrawerVisible()) {
+        if (keyCode == KeyEvent.KEYCODE_BACK && isDrawerAboveBaseDetent()) {
             event.startTracking();
             return true;
         } else {
@@ -1044,9 +3398,13 @@ public class SideSwipePanelLayout extends ViewGroup {
     @Override
     public boolean onKeyUp(int keyCode, KeyEvent event) {
         if (keyCode == KeyEvent.KEYCODE_BACK) {
-            final boolean isVis = isDrawerVisible();
+            final boolean isVis = isDrawerAboveBaseDetent();
             if (isVis && (mLockMode == LOCK_MODE_UNLOCKED)) {
-                closeDrawer(true);
+                if (getBaseRestOffset() == 0) {
+                    closeDrawer(true);
+                } else {
+                    setDrawerDetent(1, true);
+                }
             }
             return isVis;
         } else {
@@ -1064,9 +3422,16 @@ public class SideSwipePanelLayout extends ViewGroup {
         final SavedState ss = (SavedState) state;
         super.onRestoreInstanceState(ss.getSuperState());
 
-        if (ss.openDrawerGravity != Gravity.NO_GRAVITY) {
-            if (checkDrawerGravity(ss.openDrawerGravity)) {
-                openDrawer(true);
+        // A peek is a transient state of a gesture, the peeking drawer is restored closed.
+        // Before the first layout the drawer is only positioned by the layout, so there is
+        // no settle and no animation on the first frame.
+        if (ss.drawerGravity != Gravity.NO_GRAVITY && !ss.drawerPeeking
+                && ensureDrawerAt(getAbsoluteHorizontalGravity(ss.drawerGravity))) {
+            if (ss.detentIndex > 0) {
+                // Pixel detents may be at another offset with the new drawer width
+                setDrawerDetent(ss.detentIndex, false);
+            } else {
+                setDrawerOffset(getRestoredDrawerOffset(ss));
             }
         }
 
@@ -1080,19 +3445,20 @@ public class SideSwipePanelLayout extends ViewGroup {
         final Parcelable superState = super.onSaveInstanceState();
         final SavedState ss = new SavedState((superState == null) ? AbsSavedState.EMPTY_STATE : superState);
 
-        final int childCount = getChildCount();
-        for (int i = 0; i < childCount; i++) {
-            final View child = getChildAt(i);
-            LayoutParams lp = (LayoutParams) child.getLayoutParams();
-            // Is the current child fully opened (that is, not closing)?
-            boolean isOpenedAndNotClosing = (lp.openState == LayoutParams.FLAG_IS_OPENED);
-            // Is the current child opening?
-            boolean isClosedAndOpening = (lp.openState == LayoutParams.FLAG_IS_OPENING);
-            if (isOpenedAndNotClosing || isClosedAndOpening) {
-                // If one of the conditions above holds, save the child's gravity
-                // so that we open that child during state restore.
-                ss.openDrawerGravity = lp.gravity;
-                break;
+        if (hasDrawer()) {
+            // Only the active drawer can be visible
+            final LayoutParams lp = getDrawerLayoutParams();
+            if (lp.onScreen > 0 || (lp.openState & LayoutParams.FLAG_IS_OPENING) != 0) {
+                ss.drawerGravity = lp.gravity;
+                ss.drawerOffset = lp.onScreen;
+                ss.drawerOpenState = lp.openState;
+                ss.drawerPeeking = lp.isPeeking;
+
+                // An intermediate detent the drawer rests at
+                final int detentIndex = findDetentIndex(lp.onScreen, true);
+                if (detentIndex > 0 && detentIndex < getRestOffsets().length - 1) {
+                    ss.detentIndex = detentIndex;
+                }
             }
         }
 
@@ -1102,17 +3468,39 @@ public class SideSwipePanelLayout extends ViewGroup {
         return ss;
     }
 
+    /**
+     * @return The offset to restore the drawer at. A drawer, which was opening or closing, is
+     *         restored at the end of its motion.
+     */
+    private static float getRestoredDrawerOffset(SavedState ss) {
+        if ((ss.drawerOpenState & LayoutParams.FLAG_IS_OPENING) != 0) {
+            return 1f;
+        } else if ((ss.drawerOpenState & LayoutParams.FLAG_IS_CLOSING) != 0) {
+            return 0f;
+        } else {
+            return ss.drawerOffset;
+        }
+    }
+
     /**
      * DrawerState persisted across instances
      */
     protected static class SavedState extends AbsSavedState {
-        int openDrawerGravity = Gravity.NO_GRAVITY;
+        int drawerGravity = Gravity.NO_GRAVITY;
+        float drawerOffset;
+        int drawerOpenState;
+        boolean drawerPeeking;
         @LockMode int lockMode;
+        int detentIndex;
 
         SavedState(@NonNull Parcel in, @Nullable ClassLoader loader) {
             super(in, loader);
-            openDrawerGravity = in.readInt();
+            drawerGravity = in.readInt();
+            drawerOffset = in.readFloat();
+            drawerOpenState = in.readInt();
+            drawerPeeking = in.readInt() != 0;
             lockMode = in.readInt();
+            detentIndex = in.readInt();
         }
 
         SavedState(@NonNull Parcelable superState) {
@@ -1122,8 +3510,12 @@ public class SideSwipePanelLayout extends ViewGroup {
         @Override
         public void writeToParcel(Parcel dest, int flags) {
             super.writeToParcel(dest, flags);
-            dest.writeInt(openDrawerGravity);
+            dest.writeInt(drawerGravity);
+            dest.writeFloat(drawerOffset);
+            dest.writeInt(drawerOpenState);
+            dest.writeInt(drawerPeeking ? 1 : 0);
             dest.writeInt(lockMode);
+            dest.writeInt(detentIndex);
         }
 
         public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.ClassLoaderCreator<SavedState>() {
@@ -1175,25 +3567,24 @@ public class SideSwipePanelLayout extends ViewGroup {
         public void onViewPositionChanged(@NonNull View changedView, int left, int top, int dx, int dy) {
             if (!isDrawerView(changedView)) return;
 
-            float offset;
-            final int childWidth = changedView.getWidth();
-
             // This reverses the positioning shown in onLayout.
-            if (checkDrawerViewAbsoluteGravity(Gravity.LEFT)) {
-                offset = (float) (childWidth + left) / childWidth;
-            } else {
-                final int width = getWidth();
-                offset = (float) (width - left) / childWidth;
-            }
+            final float offset = DrawerMath.offsetForDrawerLeft(left, changedView.getWidth(), getWidth(), checkDrawerViewAbsoluteGravity(Gravity.LEFT));
             setDrawerViewOffset(offset);
-            changedView.setVisibility(offset == 0 ? INVISIBLE : VISIBLE);
+            final int visibility = (offset == 0) ? INVISIBLE : VISIBLE;
+            if (changedView.getVisibility() != visibility) {
+                changedView.setVisibility(visibility);
+                // setDrawerViewOffset() has updated the scrim, the clip depends on the visibility too
+                updateScrim();
+            }
+            updateContentTransform();
             invalidate();
         }
 
         @Override
         public void onViewCaptured(@NonNull View capturedChild, int activePointerId) {
-            final LayoutParams lp = (LayoutParams) capturedChild.getLayoutParams();
-            lp.isPeeking = false;
+            // The drag takes over, the state is updated by the ViewDragHelper
+            mOffsetAnimRunning = false;
+            getDrawerLayoutParams().isPeeking = false;
         }
 
         @Override
@@ -1204,26 +3595,23 @@ public class SideSwipePanelLayout extends ViewGroup {
 
 
             final float offset = getDrawerViewOffset();
-            final int childWidth = releasedChild.getWidth();
+            final float velocity = checkDrawerViewAbsoluteGravity(Gravity.LEFT) ? xVel : -xVel;
 
-            int left;
-            if (checkDrawerViewAbsoluteGravity(Gravity.LEFT)) {
-                left = xVel > 0 || (xVel == 0 && offset > 0.5f) ? 0 : -childWidth;
-            } else {
-                final int width = getWidth();
-                left = xVel < 0 || (xVel == 0 && offset > 0.5f) ? width - childWidth : width;
-            }
-
-            mDragger.settleCapturedViewAt(left, releasedChild.getTop());
-            invalidate();
+            final float target = mSettlePolicy.computeTargetOffset(offset, velocity, releasedChild.getWidth(), getRestOffsets());
+            settleDrawerTo(target, velocity, true);
         }
 
         @Override
         public void onEdgeTouched(int edgeFlags, int pointerId) {
-            postDelayed(mPeekRunnable, PEEK_DELAY);
+            // The first edge touch creates the lazy drawer, so it can be dragged out
+            if (ensureDrawerAt(((edgeFlags & ViewDragHelper.EDGE_LEFT) == ViewDragHelper.EDGE_LEFT) ? Gravity.LEFT : Gravity.RIGHT)) {
+                postDelayed(mPeekRunnable, PEEK_DELAY);
+            }
         }
 
         void peekDrawer() {
+            // A nested scrolling child keeps its touch stream, see onNestedScroll()
+            if (mNestedScrollAccepted || !ensureDrawer()) return;
             final int peekDistance = mDragger.getEdgeSize();
             final boolean leftEdge = /*mAbsGravity*/getDrawerViewAbsoluteGravity() == Gravity.LEFT;
 
@@ -1232,8 +3620,9 @@ public class SideSwipePanelLayout extends ViewGroup {
 
             // Only peek if it would mean making the drawer more visible and the drawer isn't locked
             if (((leftEdge && vDrawer.getLeft() < childLeft) || (!leftEdge && vDrawer.getLeft() > childLeft)) && mLockMode == LOCK_MODE_UNLOCKED) {
+                stopOffsetAnimation();
                 mDragger.smoothSlideViewTo(vDrawer, childLeft, vDrawer.getTop());
-                ((LayoutParams) vDrawer.getLayoutParams()).isPeeking = true;
+                getDrawerLayoutParams().isPeeking = true;
                 invalidate();
 
                 cancelChildViewTouch();
@@ -1257,7 +3646,7 @@ public class SideSwipePanelLayout extends ViewGroup {
                     ? Gravity.LEFT
                     : Gravity.RIGHT;
 
-            if (checkDrawerViewAbsoluteGravity(captGravity) && mLockMode == LOCK_MODE_UNLOCKED) {
+            if (mLockMode == LOCK_MODE_UNLOCKED && ensureDrawerAt(captGravity)) {
                 mDragger.captureChildView(getDrawerView(), pointerId);
             }
         }
@@ -1269,12 +3658,8 @@ public class SideSwipePanelLayout extends ViewGroup {
 
         @Override
         public int clampViewPositionHorizontal(@NonNull View child, int left, int dx) {
-            if ((child == getDrawerView()) && checkDrawerViewAbsoluteGravity(Gravity.LEFT)) {
-                return Math.max(-child.getWidth(), Math.min(left, 0));
-            } else {
-                final int width = getWidth();
-                return Math.max(width - child.getWidth(), Math.min(left, width));
-            }
+            final boolean leftEdge = (child == getDrawerView()) && checkDrawerViewAbsoluteGravity(Gravity.LEFT);
+            return DrawerMath.clampDrawerLeft(left, child.getWidth(), getWidth(), leftEdge);
         }
 
         @Override
@@ -1283,6 +3668,145 @@ public class SideSwipePanelLayout extends ViewGroup {
         }
     }
 
+    /**
+     * A registered {@link DrawerListener} together with its slide throttling settings and state.
+     */
+    private static final class ListenerRecord {
+        final DrawerListener listener;
+        final DetentDrawerListener detentListener;
+        private final float mMinSlideDelta;
+        private final long mMinSlideIntervalNanos;
+        private float mLastSlideOffset = -1;
+        private long mLastSlideTimeNanos;
+
+        ListenerRecord(DrawerListener listener, float minSlideDelta, int maxSlideRate) {
+            this.listener = listener;
+            this.detentListener = (listener instanceof DetentDrawerListener) ? (DetentDrawerListener) listener : null;
+            mMinSlideDelta = minSlideDelta;
+            mMinSlideIntervalNanos = (maxSlideRate > 0) ? 1_000_000_000L / maxSlideRate : 0;
+        }
+
+        void dispatchOnDrawerSlide(float slideOffset, int detentIndex, long nowNanos) {
+            final boolean isEndpoint = (slideOffset == 0) || (slideOffset == 1);
+            if (!isEndpoint && mLastSlideOffset >= 0) {
+                if (Math.abs(slideOffset - mLastSlideOffset) < mMinSlideDelta
+                        || (nowNanos - mLastSlideTimeNanos) < mMinSlideIntervalNanos) {
+                    return;
+                }
+            }
+            deliverSlide(slideOffset, detentIndex, nowNanos);
+        }
+
+        /**
+         * Delivers the offset the drawer settled at, bypassing the throttling, unless this
+         * listener has already got it.
+         */
+        void dispatchFinalSlide(float slideOffset, int detentIndex, long nowNanos) {
+            if (slideOffset != mLastSlideOffset) {
+                deliverSlide(slideOffset, detentIndex, nowNanos);
+            }
+        }
+
+        private void deliverSlide(float slideOffset, int detentIndex, long nowNanos) {
+            mLastSlideOffset = slideOffset;
+            mLastSlideTimeNanos = nowNanos;
+            if (detentListener != null) {
+                detentListener.onDrawerSlide(slideOffset, detentIndex);
+            } else {
+                listener.onDrawerSlide(slideOffset);
+            }
+        }
+    }
+
+    /**
+     * Collects {@link GestureMetrics} between two idle states of the drawer. Frames are counted
+     * with Choreographer frame callbacks.
+     */
+    private class GestureMetricsTracker implements Choreographer.FrameCallback {
+        private final DrawerMetricsListener mListener;
+        private final GestureMetrics mMetrics = new GestureMetrics();
+        private boolean mTracking;
+        private long mFrameIntervalNanos;
+        private long mLastFrameTimeNanos;
+        private long mReleaseTime;
+
+        GestureMetricsTracker(DrawerMetricsListener listener) {
+            mListener = listener;
+        }
+
+        boolean isTracking() {
+            return mTracking;
+        }
+
+        void onDrawerStateChanged(@DrawerState int oldState, @DrawerState int newState) {
+            if (oldState == STATE_IDLE) {
+                start();
+            } else if (newState == STATE_IDLE && mTracking) {
+                finish();
+            }
+        }
+
+        void onTouchReleased() {
+            if (mTracking && mReleaseTime < 0) {
+                mReleaseTime = SystemClock.uptimeMillis();
+            }
+        }
+
+        void onDrawChild(long durationNanos) {
+            if (durationNanos > mMetrics.peakDrawChildNanos) {
+                mMetrics.peakDrawChildNanos = durationNanos;
+            }
+        }
+
+        void onRequestLayout() {
+            if (mTracking) {
+                mMetrics.requestLayoutCount ++;
+            }
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mTracking) return;
+
+            if (mLastFrameTimeNanos != 0) {
+                final long interval = frameTimeNanos - mLastFrameTimeNanos;
+                if (interval > mFrameIntervalNanos * 3 / 2) {
+                    mMetrics.droppedFrameCount += (int) ((interval + mFrameIntervalNanos / 2) / mFrameIntervalNanos) - 1;
+                }
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+            mMetrics.frameCount ++;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        private void start() {
+            mMetrics.reset();
+            final Display display = getDisplay();
+            final float refreshRate = (display == null || display.getRefreshRate() <= 0) ? 60f : display.getRefreshRate();
+            mFrameIntervalNanos = (long) (1_000_000_000L / refreshRate);
+            mLastFrameTimeNanos = 0;
+            mReleaseTime = -1;
+            mTracking = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        private void finish() {
+            cancel();
+            if (mReleaseTime >= 0) {
+                mMetrics.releaseToIdleMillis = SystemClock.uptimeMillis() - mReleaseTime;
+            }
+            mMetrics.finalOffset = getDrawerViewOffset();
+            mListener.onDrawerGestureMetrics(mMetrics);
+        }
+
+        void cancel() {
+            if (mTracking) {
+                mTracking = false;
+                Choreographer.getInstance().removeFrameCallback(this);
+            }
+        }
+    }
+
     public static class LayoutParams extends ViewGroup.MarginLayoutParams {
         private static final int STATE_IS_CLOSED = 0;
         private static final int FLAG_IS_OPENED = 0x1;
@@ -1294,6 +3818,13 @@ public class SideSwipePanelLayout extends ViewGroup {
         boolean isPeeking;
         int openState;
 
+        /*
+         * Drawer measure specs of the last measure and whether the measure is skipped while closed
+         */
+        int widthSpec = -1;
+        int heightSpec = -1;
+        boolean measureDeferred;
+
         LayoutParams(@NonNull Context c, @Nullable AttributeSet attrs) {
             super(c, attrs);
 
@@ -0,0 +1,73 @@
+package com.alperez.widget.customlayout;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects the samples of the Robolectric benchmarks, prints a summary of each benchmark and
+ * exports them as JSON, so the results can be compared across releases.
+ *
+ * <p>The report goes to {@code build/reports/benchmarks/<name>.json} of the module, or to the
+ * directory given by the {@code benchmark.reportDir} system property.</p>
+ */
+final class BenchmarkReport {
+    private static final String REPORT_DIR = "build/reports/benchmarks";
+
+    private final String mName;
+    private final List<String> mEntries = new ArrayList<>();
+
+    BenchmarkReport(String name) {
+        mName = name;
+    }
+
+    /**
+     * Adds a benchmark.
+     *
+     * @param samples Time of each iteration, ns. Sorted in place.
+     * @param unit What one iteration is, e.g. "gesture"
+     * @return The median, ns
+     */
+    long add(String benchmark, long[] samples, String unit) {
+        Arrays.sort(samples);
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+        final long median = samples[samples.length / 2];
+        final long p90 = samples[(int) (samples.length * 0.9f)];
+        final long mean = total / samples.length;
+
+        System.out.println(String.format(Locale.US, "%s.%s: median %d, p90 %d, mean %d ns/%s (%d iterations)",
+                mName, benchmark, median, p90, mean, unit, samples.length));
+        mEntries.add(String.format(Locale.US,
+                "{\"benchmark\": \"%s\", \"unit\": \"ns/%s\", \"iterations\": %d, \"median\": %d, \"p90\": %d, \"mean\": %d, \"min\": %d, \"max\": %d}",
+                benchmark, unit, samples.length, median, p90, mean, samples[0], samples[samples.length - 1]));
+        return median;
+    }
+
+    /**
+     * Writes all the benchmarks added so far.
+     */
+    void write() throws IOException {
+        final File dir = new File(System.getProperty("benchmark.reportDir", REPORT_DIR));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Can not create " + dir);
+        }
+        final File file = new File(dir, mName + ".json");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write("{\"name\": \"" + mName + "\", \"benchmarks\": [\n  ");
+            for (int i = 0; i < mEntries.size(); i++) {
+                if (i > 0) writer.write(",\n  ");
+                writer.write(mEntries.get(i));
+            }
+            writer.write("\n]}\n");
+        }
+        System.out.println("Benchmark report: " + file.getAbsolutePath());
+    }
+}
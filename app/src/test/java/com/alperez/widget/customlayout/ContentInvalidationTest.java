@@ -0,0 +1,75 @@
+package com.alperez.widget.customlayout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.Gravity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Redraws caused by the content alone, e.g. its animations, must not do any drawer work:
+ * no scrim update, no slide callback and no measure of the drawer.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ContentInvalidationTest {
+    private static final int FRAMES = 100;
+
+    private DrawerTestHarness mHarness;
+    private Canvas mCanvas;
+    private int mSlideCount;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+        mHarness.layout.addDrawerListener(new SideSwipePanelLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(float slideOffset) {
+                mSlideCount ++;
+            }
+        });
+        mCanvas = new Canvas(Bitmap.createBitmap(DrawerTestHarness.WIDTH, DrawerTestHarness.HEIGHT, Bitmap.Config.ARGB_8888));
+    }
+
+    @Test
+    public void openDrawer() {
+        mHarness.layout.openDrawer(true);
+        mHarness.settle();
+        assertEquals(1f, mHarness.layout.getDrawerOffset(), 0);
+        assertNoDrawerWork();
+    }
+
+    @Test
+    public void closedDrawer() {
+        assertEquals(0f, mHarness.layout.getDrawerOffset(), 0);
+        assertNoDrawerWork();
+    }
+
+    private void assertNoDrawerWork() {
+        // Let the state settle down, then count from a clean draw pass
+        mHarness.frame();
+        mHarness.layout.draw(mCanvas);
+        assertEquals(STATE_IDLE, mHarness.getDrawerState());
+        final int scrimUpdates = mHarness.layout.getScrimUpdateCount();
+        final int drawerMeasures = mHarness.layout.getDrawerMeasureCount();
+        final int slides = mSlideCount;
+
+        for (int i = 0; i < FRAMES; i++) {
+            mHarness.content.invalidate();
+            mHarness.frame();
+            mHarness.layout.draw(mCanvas);
+        }
+
+        assertEquals("Scrim updates", scrimUpdates, mHarness.layout.getScrimUpdateCount());
+        assertEquals("Drawer measures", drawerMeasures, mHarness.layout.getDrawerMeasureCount());
+        assertEquals("Slide callbacks", slides, mSlideCount);
+        assertEquals(STATE_IDLE, mHarness.getDrawerState());
+    }
+}
@@ -0,0 +1,88 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Opening and closing the drawer must neither measure nor lay out the content: every frame is
+ * followed by a layout pass, as a traversal would do, and the content counters are checked.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class ContentRemeasureTest {
+    private static final float Y = 500;
+    private static final int FRAMES = 20;
+    private static final int MAX_SETTLE_FRAMES = 1000;
+
+    private DrawerTestHarness mHarness;
+    private int mContentMeasures;
+    private int mContentLayouts;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+        mContentMeasures = mHarness.layout.getContentMeasureCount();
+        mContentLayouts = mHarness.layout.getContentLayoutCount();
+    }
+
+    @Test
+    public void dragOpenAndClose() {
+        final int drawerWidth = mHarness.layout.getDrawerView().getWidth();
+        drag(DrawerTestHarness.edgeX(Gravity.LEFT), drawerWidth * 0.7f);
+        settle();
+        assertEquals(1f, mHarness.layout.getDrawerOffset(), 0);
+
+        drag(drawerWidth * 0.8f, drawerWidth * 0.1f);
+        settle();
+        assertEquals(0f, mHarness.layout.getDrawerOffset(), 0);
+        assertContentUntouched();
+    }
+
+    @Test
+    public void animatedOpenAndClose() {
+        mHarness.layout.openDrawer(true);
+        settle();
+        assertEquals(1f, mHarness.layout.getDrawerOffset(), 0);
+
+        mHarness.layout.closeDrawer(true);
+        settle();
+        assertEquals(0f, mHarness.layout.getDrawerOffset(), 0);
+        assertContentUntouched();
+    }
+
+    private void assertContentUntouched() {
+        assertEquals("Content measures", mContentMeasures, mHarness.layout.getContentMeasureCount());
+        assertEquals("Content layouts", mContentLayouts, mHarness.layout.getContentLayoutCount());
+    }
+
+    private void drag(float fromX, float toX) {
+        mHarness.touch(MotionEvent.ACTION_DOWN, fromX, Y);
+        for (int i = 1; i <= FRAMES; i++) {
+            frame();
+            mHarness.touch(MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / FRAMES, Y);
+        }
+        mHarness.touch(MotionEvent.ACTION_UP, toX, Y);
+    }
+
+    private void frame() {
+        mHarness.frame();
+        mHarness.layout();
+    }
+
+    private void settle() {
+        int frames = 0;
+        do {
+            frame();
+        } while (mHarness.getDrawerState() != STATE_IDLE && ++frames < MAX_SETTLE_FRAMES);
+        assertEquals(STATE_IDLE, mHarness.getDrawerState());
+    }
+}
@@ -0,0 +1,53 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scrubs a docked drawer with {@link SideSwipePanelLayout#setDrawerOffset(float)}, as an external
+ * animator would, and counts the measure passes of the content.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DockedScrubTest {
+    private static final int STEPS = 50;
+
+    private DrawerTestHarness mHarness;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT);
+        mHarness.layout.setDockedMinWidth(DrawerTestHarness.WIDTH);
+        mHarness.layout();
+        mHarness.layout.setDrawerOffset(1);
+        mHarness.layout();
+        assertTrue(mHarness.layout.isDocked());
+        assertEquals(DrawerTestHarness.WIDTH - mHarness.layout.getDrawerView().getWidth(), mHarness.content.getMeasuredWidth());
+    }
+
+    @Test
+    public void scrubbingMeasuresContentOnlyAtDetents() {
+        final int measures = mHarness.layout.getContentMeasureCount();
+        for (int i = 1; i < STEPS; i++) {
+            mHarness.layout.setDrawerOffset(1 - (float) i / STEPS);
+            mHarness.layout();
+        }
+        // Leaving the open detent gives the content its full width once
+        assertEquals(measures + 1, mHarness.layout.getContentMeasureCount());
+        assertEquals(DrawerTestHarness.WIDTH, mHarness.content.getMeasuredWidth());
+
+        mHarness.layout.setDrawerOffset(0);
+        mHarness.layout();
+        mHarness.layout.setDrawerOffset(1);
+        mHarness.layout();
+        assertEquals(DrawerTestHarness.WIDTH - mHarness.layout.getDrawerView().getWidth(), mHarness.content.getMeasuredWidth());
+    }
+}
@@ -0,0 +1,103 @@
+package com.alperez.widget.customlayout;
+
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_DRAGGING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Guards the allocation-free drag path: thousands of drag frames are dispatched through the
+ * touch handling of the layout and the allocations of the test thread are counted.
+ *
+ * <p>Only the touch and settle path is covered. Drawing is left out, because the Robolectric
+ * canvas records every call.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DragAllocationTest {
+    private static final int FRAMES = 5000;
+    private static final float Y = 500;
+
+    private DrawerTestHarness mHarness;
+    private MotionEvent[] mMoves;
+    private int mSlideCount;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+        mHarness.layout.addDrawerListener(new SideSwipePanelLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerSlide(float slideOffset) {
+                mSlideCount ++;
+            }
+        });
+
+        // Events are prepared in advance, so obtaining them is not counted.
+        // The pointer goes back and forth, so every frame moves the drawer.
+        final long time = SystemClock.uptimeMillis();
+        final int drawerWidth = mHarness.layout.getDrawerView().getMeasuredWidth();
+        mMoves = new MotionEvent[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            final int phase = i % 400;
+            final float x = 100 + drawerWidth * 0.5f * ((phase < 200) ? phase : 400 - phase) / 200;
+            mMoves[i] = MotionEvent.obtain(time, time + i * DrawerTestHarness.FRAME_MS, MotionEvent.ACTION_MOVE, x, Y, 0);
+        }
+    }
+
+    @Test
+    public void dragFramesDoNotAllocate() {
+        // A first gesture warms up the lazy state of the layout and the framework
+        startDrag();
+        dispatchMoves(FRAMES / 2);
+        mHarness.touch(MotionEvent.ACTION_UP, 100, Y);
+        mHarness.settle();
+
+        startDrag();
+        assertEquals(STATE_DRAGGING, mHarness.getDrawerState());
+        final int slidesBefore = mSlideCount;
+        final long overhead = measurementOverhead();
+        final long before = allocatedBytes();
+        dispatchMoves(FRAMES);
+        final long allocated = allocatedBytes() - before - overhead;
+        mHarness.touch(MotionEvent.ACTION_UP, 100, Y);
+
+        assertTrue("The drag frames did not move the drawer", mSlideCount - slidesBefore > FRAMES / 2);
+        assertEquals("Drag frames allocated " + allocated + " bytes in " + FRAMES + " frames", 0, allocated);
+    }
+
+    private void startDrag() {
+        mHarness.touch(MotionEvent.ACTION_DOWN, DrawerTestHarness.edgeX(Gravity.LEFT), Y);
+        mHarness.touch(MotionEvent.ACTION_MOVE, 60, Y);
+        mHarness.touch(MotionEvent.ACTION_MOVE, 100, Y);
+    }
+
+    private void dispatchMoves(int count) {
+        for (int i = 0; i < count; i++) {
+            mHarness.layout.dispatchTouchEvent(mMoves[i]);
+            mHarness.layout.computeScroll();
+        }
+    }
+
+    /**
+     * @return Bytes allocated by a pair of {@link #allocatedBytes()} calls themselves
+     */
+    private static long measurementOverhead() {
+        final long before = allocatedBytes();
+        return allocatedBytes() - before;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
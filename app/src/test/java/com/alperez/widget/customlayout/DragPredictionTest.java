@@ -0,0 +1,103 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_DRAGGING;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drags the drawer with finger traces sampled at 120 Hz and batched per frame, as on most
+ * devices, and measures the finger-to-drawer lag of the low-latency drag: the distance between
+ * the drawer as drawn at a frame and the finger one frame later, when the frame is shown.
+ *
+ * <p>Where the finger is at the next frame is taken from the drag without prediction, in which
+ * the drawer follows the finger exactly. The density is xxhdpi, so the prediction is limited to
+ * 48 px.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, qualifiers = "xxhdpi")
+public class DragPredictionTest {
+    private static final long INPUT_PERIOD_MS = DrawerTestHarness.FRAME_MS / 2;
+    private static final float Y = 500;
+
+    private interface Trace {
+        /**
+         * @return How far the finger has moved from the edge at the given time since the down, px
+         */
+        float dx(long timeMs);
+    }
+
+    // Accelerates and decelerates over 600 px in 400 ms, then holds
+    private static final Trace SWIPE = t -> (t >= 400) ? 600 : 300 * (1 - (float) Math.cos(Math.PI * t / 400));
+    // Constant speed of 1.5 px/ms
+    private static final Trace STEADY = t -> 1.5f * t;
+    // Out to 300 px and back in 600 ms
+    private static final Trace WIGGLE = t -> 150 * (1 - (float) Math.cos(2 * Math.PI * t / 600));
+
+    @Test
+    public void predictionReducesLagOfSwipe() {
+        assertReduces(SWIPE, 600, 0.75f);
+    }
+
+    @Test
+    public void predictionReducesLagOfSteadyDrag() {
+        assertReduces(STEADY, 400, 0.5f);
+    }
+
+    @Test
+    public void predictionReducesLagOfWiggle() {
+        assertReduces(WIGGLE, 1200, 1);
+    }
+
+    private static void assertReduces(Trace trace, long durationMs, float maxRatio) {
+        final int[] real = new int[(int) (durationMs / DrawerTestHarness.FRAME_MS) + 1];
+        final int[] drawn = new int[real.length];
+        final boolean[] dragging = new boolean[real.length];
+        drag(trace, false, real, dragging);
+        drag(trace, true, drawn, dragging);
+
+        float plainLag = 0;
+        float predictedLag = 0;
+        int frames = 0;
+        for (int i = 0; i < real.length - 1; i++) {
+            if (!dragging[i] || !dragging[i + 1]) continue;
+            plainLag += Math.abs(real[i + 1] - real[i]);
+            predictedLag += Math.abs(real[i + 1] - drawn[i]);
+            frames++;
+        }
+        assertTrue("The drawer has not been dragged", frames > 0);
+        assertTrue("Mean lag " + predictedLag / frames + " px with prediction, " + plainLag / frames + " px without",
+                predictedLag <= plainLag * maxRatio && predictedLag < plainLag);
+    }
+
+    /**
+     * Drags the left drawer along the trace and records the right edge of the drawer after the
+     * input of every frame has been handled.
+     *
+     * @param dragging Whether the drawer was dragged at each frame, and in the previous drags
+     */
+    private static void drag(Trace trace, boolean lowLatency, int[] rights, boolean[] dragging) {
+        final DrawerTestHarness harness = new DrawerTestHarness(Gravity.LEFT).layout();
+        harness.layout.setLowLatencyDragEnabled(lowLatency);
+        final float x = DrawerTestHarness.edgeX(Gravity.LEFT);
+
+        harness.touch(MotionEvent.ACTION_DOWN, x, Y);
+        for (int i = 0; i < rights.length; i++) {
+            if (i > 0) {
+                harness.frame();
+                final long t = i * DrawerTestHarness.FRAME_MS;
+                harness.touchBatched(INPUT_PERIOD_MS, Y, x + trace.dx(t - INPUT_PERIOD_MS), x + trace.dx(t));
+            }
+            rights[i] = harness.layout.getDrawerView().getRight();
+            final boolean isDragging = harness.getDrawerState() == STATE_DRAGGING;
+            dragging[i] = lowLatency ? dragging[i] && isDragging : isDragging;
+        }
+        harness.touch(MotionEvent.ACTION_UP, x + trace.dx(rights.length * DrawerTestHarness.FRAME_MS), Y);
+    }
+}
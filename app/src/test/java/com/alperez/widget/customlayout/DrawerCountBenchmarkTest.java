@@ -0,0 +1,98 @@
+package com.alperez.widget.customlayout;
+
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_DRAGGING;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the cost of a drag frame of the single-drawer configuration with the two-drawer one.
+ * A frame is a dispatched ACTION_MOVE plus {@link SideSwipePanelLayout#computeScroll()}.
+ * The times are exported by {@link BenchmarkReport} for a comparison across runs, the test does
+ * not pass or fail on them.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DrawerCountBenchmarkTest {
+    private static final int FRAMES = 2000;
+    private static final int ROUNDS = 7;
+    private static final float Y = 500;
+
+    @Test
+    public void dragFrameCost() throws IOException {
+        final BenchmarkReport report = new BenchmarkReport("drawer_count");
+        final DrawerTestHarness oneDrawer = new DrawerTestHarness(Gravity.LEFT);
+        final DrawerTestHarness twoDrawers = new DrawerTestHarness(Gravity.LEFT, Gravity.RIGHT);
+
+        report.add("oneDrawer", measure(oneDrawer, Gravity.LEFT), "frame");
+        report.add("twoDrawersLeft", measure(twoDrawers, Gravity.LEFT), "frame");
+        report.add("twoDrawersRight", measure(twoDrawers, Gravity.RIGHT), "frame");
+        report.write();
+    }
+
+    /**
+     * Drags the drawer with the given gravity back and forth.
+     *
+     * @return The cost of a frame in each round, ns
+     */
+    private static long[] measure(DrawerTestHarness harness, int gravity) {
+        harness.layout();
+        final MotionEvent[] moves = createMoves(harness, gravity);
+        final long[] rounds = new long[ROUNDS];
+
+        // The first round warms up the code and is not counted
+        for (int round = -1; round < ROUNDS; round++) {
+            startDrag(harness, gravity);
+            assertEquals(STATE_DRAGGING, harness.getDrawerState());
+            final long start = System.nanoTime();
+            for (MotionEvent move : moves) {
+                harness.layout.dispatchTouchEvent(move);
+                harness.layout.computeScroll();
+            }
+            final long elapsed = System.nanoTime() - start;
+            harness.touch(MotionEvent.ACTION_UP, edgeInsetX(gravity, 100), Y);
+            harness.settle();
+            if (round >= 0) {
+                rounds[round] = elapsed / FRAMES;
+            }
+        }
+        for (MotionEvent move : moves) {
+            move.recycle();
+        }
+        return rounds;
+    }
+
+    private static void startDrag(DrawerTestHarness harness, int gravity) {
+        harness.touch(MotionEvent.ACTION_DOWN, DrawerTestHarness.edgeX(gravity), Y);
+        harness.touch(MotionEvent.ACTION_MOVE, edgeInsetX(gravity, 60), Y);
+        harness.touch(MotionEvent.ACTION_MOVE, edgeInsetX(gravity, 100), Y);
+    }
+
+    /**
+     * The pointer goes back and forth over half of the drawer, so every frame moves the drawer.
+     */
+    private static MotionEvent[] createMoves(DrawerTestHarness harness, int gravity) {
+        final long time = SystemClock.uptimeMillis();
+        final int drawerWidth = harness.layout.getDrawerView(gravity).getMeasuredWidth();
+        final MotionEvent[] moves = new MotionEvent[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            final int phase = i % 400;
+            final float inset = 100 + drawerWidth * 0.5f * ((phase < 200) ? phase : 400 - phase) / 200;
+            moves[i] = MotionEvent.obtain(time, time + i * DrawerTestHarness.FRAME_MS, MotionEvent.ACTION_MOVE, edgeInsetX(gravity, inset), Y, 0);
+        }
+        return moves;
+    }
+
+    private static float edgeInsetX(int gravity, float inset) {
+        return (gravity == Gravity.LEFT) ? inset : DrawerTestHarness.WIDTH - inset;
+    }
+}
@@ -0,0 +1,63 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Layout requests of the content must not measure a closed drawer again, as long as the size of
+ * the layout is the same.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DrawerMeasureDeferralTest {
+    private static final int PASSES = 20;
+
+    private DrawerTestHarness mHarness;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+    }
+
+    @Test
+    public void closedDrawerIsNotMeasuredOnContentLayoutRequests() {
+        final int drawerMeasures = mHarness.layout.getDrawerMeasureCount();
+        final int contentMeasures = mHarness.layout.getContentMeasureCount();
+        for (int i = 0; i < PASSES; i++) {
+            mHarness.content.requestLayout();
+            mHarness.layout();
+        }
+        assertEquals(drawerMeasures, mHarness.layout.getDrawerMeasureCount());
+        // The content itself is measured on its requests
+        assertEquals(contentMeasures + PASSES, mHarness.layout.getContentMeasureCount());
+    }
+
+    @Test
+    public void closedDrawerIsMeasuredOnNewSize() {
+        final int drawerMeasures = mHarness.layout.getDrawerMeasureCount();
+        mHarness.content.requestLayout();
+        mHarness.layout.measure(View.MeasureSpec.makeMeasureSpec(DrawerTestHarness.WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(DrawerTestHarness.HEIGHT / 2, View.MeasureSpec.EXACTLY));
+        mHarness.layout.layout(0, 0, DrawerTestHarness.WIDTH, DrawerTestHarness.HEIGHT / 2);
+        assertEquals(drawerMeasures + 1, mHarness.layout.getDrawerMeasureCount());
+    }
+
+    @Test
+    public void drawerIsMeasuredOnItsOwnLayoutRequestWhenOpen() {
+        mHarness.layout.openDrawer(false);
+        mHarness.layout();
+        final int drawerMeasures = mHarness.layout.getDrawerMeasureCount();
+        mHarness.layout.getDrawerView().requestLayout();
+        mHarness.layout();
+        assertTrue(mHarness.layout.getDrawerMeasureCount() > drawerMeasures);
+    }
+}
@@ -0,0 +1,97 @@
+package com.alperez.widget.customlayout;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_DRAGGING;
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+import static androidx.customview.widget.ViewDragHelper.STATE_SETTLING;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A memory trim in the middle of a motion drops the layer of the drawer snapshot for the rest of
+ * that motion, the settling after the release included.
+ *
+ * <p>The layout is attached to an activity here, the trim callbacks are registered only while
+ * the layout is attached to a window.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DrawerSnapshotTrimTest {
+    private static final float Y = 200;
+
+    private DrawerTestHarness mHarness;
+    private View mDrawer;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT);
+        final Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        activity.setContentView(mHarness.layout, new ViewGroup.LayoutParams(DrawerTestHarness.WIDTH, DrawerTestHarness.HEIGHT));
+        mHarness.layout.setDrawerSnapshotEnabled(true);
+        mHarness.layout();
+        mDrawer = mHarness.layout.getDrawerView();
+    }
+
+    @Test
+    public void trimDuringDragKeepsLayerOffUntilIdle() {
+        final float x = DrawerTestHarness.edgeX(Gravity.LEFT);
+        mHarness.touch(MotionEvent.ACTION_DOWN, x, Y);
+        mHarness.frame();
+        mHarness.touch(MotionEvent.ACTION_MOVE, x + 60, Y);
+        mHarness.frame();
+        mHarness.touch(MotionEvent.ACTION_MOVE, x + 100, Y);
+        assertEquals(STATE_DRAGGING, mHarness.getDrawerState());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+
+        RuntimeEnvironment.application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+
+        mHarness.frame();
+        mHarness.touch(MotionEvent.ACTION_MOVE, x + 140, Y);
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+        mHarness.touch(MotionEvent.ACTION_UP, x + 140, Y);
+        assertEquals(STATE_SETTLING, mHarness.getDrawerState());
+        while (mHarness.getDrawerState() != STATE_IDLE) {
+            assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+            mHarness.frame();
+        }
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+    }
+
+    @Test
+    public void nextMotionAfterTrimRendersLayerAgain() {
+        final float x = DrawerTestHarness.edgeX(Gravity.LEFT);
+        mHarness.touch(MotionEvent.ACTION_DOWN, x, Y);
+        mHarness.frame();
+        mHarness.touch(MotionEvent.ACTION_MOVE, x + 100, Y);
+        RuntimeEnvironment.application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        mHarness.touch(MotionEvent.ACTION_UP, x + 100, Y);
+        mHarness.settle();
+
+        mHarness.layout.openDrawer(true);
+        assertEquals(STATE_SETTLING, mHarness.getDrawerState());
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+        mHarness.settle();
+        assertEquals(View.LAYER_TYPE_NONE, mDrawer.getLayerType());
+    }
+
+    @Test
+    public void trimWhileIdleDoesNotBlockNextMotion() {
+        RuntimeEnvironment.application.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        mHarness.layout.openDrawer(true);
+        assertEquals(View.LAYER_TYPE_HARDWARE, mDrawer.getLayerType());
+    }
+}
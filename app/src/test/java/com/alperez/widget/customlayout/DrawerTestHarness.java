@@ -0,0 +1,183 @@
+package com.alperez.widget.customlayout;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.robolectric.Robolectric;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+
+/**
+ * Builds a {@link SideSwipePanelLayout} with plain child views at a fixed size and drives it with
+ * synthetic touch events and frames, for Robolectric tests.
+ *
+ * <p>The layout is not attached to a window, so nothing is drawn and the frames are driven
+ * explicitly: {@link #frame()} advances the clock by one frame and runs
+ * {@link SideSwipePanelLayout#computeScroll()}, as the draw pass would.</p>
+ */
+final class DrawerTestHarness {
+    static final int WIDTH = 1080;
+    static final int HEIGHT = 1920;
+    static final long FRAME_MS = 16;
+    private static final int MAX_SETTLE_FRAMES = 1000;
+
+    final SideSwipePanelLayout layout;
+    final View content;
+
+    private long mDownTime;
+    private int mDrawerState = STATE_IDLE;
+
+    /**
+     * @param drawerGravities Gravity of each drawer to add after the content, none for a layout
+     *                        without drawers
+     */
+    DrawerTestHarness(int... drawerGravities) {
+        final Context context = RuntimeEnvironment.application;
+        layout = new SideSwipePanelLayout(context, Robolectric.buildAttributeSet().build());
+        content = new View(context);
+        layout.addView(content, new SideSwipePanelLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        for (int gravity : drawerGravities) {
+            layout.addView(createDrawer(context), createDrawerLayoutParams(gravity));
+        }
+        layout.addDrawerListener(new SideSwipePanelLayout.SimpleDrawerListener() {
+            @Override
+            public void onDrawerStateChanged(int newState) {
+                mDrawerState = newState;
+            }
+        });
+    }
+
+    static View createDrawer(Context context) {
+        final View drawer = new View(context);
+        // A drawer must be opaque
+        drawer.setBackgroundColor(Color.WHITE);
+        return drawer;
+    }
+
+    static SideSwipePanelLayout.LayoutParams createDrawerLayoutParams(int gravity) {
+        final SideSwipePanelLayout.LayoutParams lp = new SideSwipePanelLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT);
+        lp.gravity = gravity;
+        return lp;
+    }
+
+    /**
+     * Measures and lays out the layout at the fixed size, as a traversal would do.
+     */
+    DrawerTestHarness layout() {
+        layout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, WIDTH, HEIGHT);
+        return this;
+    }
+
+    int getDrawerState() {
+        return mDrawerState;
+    }
+
+    /**
+     * @return A new event at the current time. The caller recycles it.
+     */
+    MotionEvent obtain(int action, float x, float y) {
+        final long now = SystemClock.uptimeMillis();
+        if (action == MotionEvent.ACTION_DOWN) {
+            mDownTime = now;
+        }
+        return MotionEvent.obtain(mDownTime, now, action, x, y, 0);
+    }
+
+    /**
+     * Dispatches a new event to the layout the way its parent would and recycles it.
+     *
+     * @return Whether the event was consumed
+     */
+    boolean touch(int action, float x, float y) {
+        final MotionEvent ev = obtain(action, x, y);
+        try {
+            return layout.dispatchTouchEvent(ev);
+        } finally {
+            ev.recycle();
+        }
+    }
+
+    /**
+     * Dispatches a move with several samples batched into one event, as the input of a frame is
+     * delivered, and recycles it. The last sample is at the current time, the samples before it
+     * are historical.
+     *
+     * @param periodMs Time between the samples
+     * @param xs       x of the samples, oldest first
+     * @return Whether the event was consumed
+     */
+    boolean touchBatched(long periodMs, float y, float... xs) {
+        final long now = SystemClock.uptimeMillis();
+        final long start = now - periodMs * (xs.length - 1);
+        final MotionEvent ev = MotionEvent.obtain(mDownTime, start, MotionEvent.ACTION_MOVE, xs[0], y, 0);
+        try {
+            for (int i = 1; i < xs.length; i++) {
+                ev.addBatch(start + periodMs * i, xs[i], y, 1, 1, 0);
+            }
+            return layout.dispatchTouchEvent(ev);
+        } finally {
+            ev.recycle();
+        }
+    }
+
+    /**
+     * Drags a pointer from one point to another in the given number of frames, down and up included.
+     */
+    void drag(float fromX, float toX, float y, int frames) {
+        touch(MotionEvent.ACTION_DOWN, fromX, y);
+        for (int i = 1; i <= frames; i++) {
+            frame();
+            touch(MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / frames, y);
+        }
+        touch(MotionEvent.ACTION_UP, toX, y);
+    }
+
+    /**
+     * Advances the clock by one frame and runs the settle step of the layout.
+     */
+    void frame() {
+        advanceClock();
+        layout.computeScroll();
+    }
+
+    /**
+     * Advances the clock by one frame and runs the main looper tasks due by then.
+     */
+    void advanceClock() {
+        ShadowLooper.idleMainLooper(FRAME_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs frames until the drawer is idle.
+     *
+     * @return The number of frames it took
+     */
+    int settle() {
+        int frames = 0;
+        while (mDrawerState != STATE_IDLE) {
+            if (++frames > MAX_SETTLE_FRAMES) {
+                throw new AssertionError("The drawer did not settle in " + MAX_SETTLE_FRAMES + " frames");
+            }
+            frame();
+        }
+        return frames;
+    }
+
+    /**
+     * @return x of a touch at the edge of the drawer with the given absolute gravity
+     */
+    static float edgeX(int absGravity) {
+        return (absGravity == Gravity.LEFT) ? 1 : WIDTH - 1;
+    }
+}
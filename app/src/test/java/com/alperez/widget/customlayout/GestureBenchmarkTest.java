@@ -0,0 +1,181 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Macro benchmark of complete gestures: every event goes through
+ * {@link SideSwipePanelLayout#onInterceptTouchEvent(MotionEvent)} and
+ * {@link SideSwipePanelLayout#onTouchEvent(MotionEvent)} by the regular dispatch, and every
+ * frame runs {@link SideSwipePanelLayout#computeScroll()} until the drawer is idle. Only the
+ * calls into the layout are timed, the clock and the looper of the harness are not.
+ *
+ * <p>The results are exported by {@link BenchmarkReport}. The absolute numbers are those of the
+ * Robolectric runtime and are meant to be compared between runs on the same machine.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class GestureBenchmarkTest {
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+    private static final int DRAG_FRAMES = 20;
+    private static final float Y = 500;
+
+    private DrawerTestHarness mHarness;
+    private long mElapsed;
+
+    private interface Gesture {
+        void prepare();
+        void run();
+        float expectedOffset();
+    }
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+    }
+
+    @Test
+    public void gestures() throws IOException {
+        final BenchmarkReport report = new BenchmarkReport("gestures");
+        final int drawerWidth = mHarness.layout.getDrawerView().getWidth();
+
+        report.add("openByEdgeSwipe", measure(new Gesture() {
+            @Override
+            public void prepare() {
+                mHarness.layout.closeDrawer(false);
+            }
+
+            @Override
+            public void run() {
+                drag(DrawerTestHarness.edgeX(Gravity.LEFT), drawerWidth * 0.7f);
+                settle();
+            }
+
+            @Override
+            public float expectedOffset() {
+                return 1;
+            }
+        }), "gesture");
+
+        report.add("closeBySwipe", measure(new Gesture() {
+            @Override
+            public void prepare() {
+                mHarness.layout.openDrawer(false);
+            }
+
+            @Override
+            public void run() {
+                drag(drawerWidth * 0.8f, drawerWidth * 0.1f);
+                settle();
+            }
+
+            @Override
+            public float expectedOffset() {
+                return 0;
+            }
+        }), "gesture");
+
+        report.add("closeByScrimTap", measure(new Gesture() {
+            @Override
+            public void prepare() {
+                mHarness.layout.openDrawer(false);
+            }
+
+            @Override
+            public void run() {
+                final float x = (drawerWidth + DrawerTestHarness.WIDTH) / 2f;
+                touch(MotionEvent.ACTION_DOWN, x);
+                touch(MotionEvent.ACTION_UP, x);
+                settle();
+            }
+
+            @Override
+            public float expectedOffset() {
+                return 0;
+            }
+        }), "gesture");
+
+        report.add("contentTap", measure(new Gesture() {
+            @Override
+            public void prepare() {
+                mHarness.layout.closeDrawer(false);
+            }
+
+            @Override
+            public void run() {
+                touch(MotionEvent.ACTION_DOWN, DrawerTestHarness.WIDTH / 2f);
+                touch(MotionEvent.ACTION_UP, DrawerTestHarness.WIDTH / 2f);
+                settle();
+            }
+
+            @Override
+            public float expectedOffset() {
+                return 0;
+            }
+        }), "gesture");
+
+        report.write();
+    }
+
+    /**
+     * @return Time of each iteration, ns
+     */
+    private long[] measure(Gesture gesture) {
+        final long[] samples = new long[ITERATIONS];
+        for (int i = -WARMUP; i < ITERATIONS; i++) {
+            gesture.prepare();
+            mHarness.frame();
+            mElapsed = 0;
+            gesture.run();
+            assertEquals(gesture.expectedOffset(), mHarness.layout.getDrawerOffset(), 0);
+            if (i >= 0) {
+                samples[i] = mElapsed;
+            }
+        }
+        return samples;
+    }
+
+    private void drag(float fromX, float toX) {
+        touch(MotionEvent.ACTION_DOWN, fromX);
+        for (int i = 1; i <= DRAG_FRAMES; i++) {
+            frame();
+            touch(MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / DRAG_FRAMES);
+        }
+        touch(MotionEvent.ACTION_UP, toX);
+    }
+
+    private void touch(int action, float x) {
+        final MotionEvent ev = mHarness.obtain(action, x, Y);
+        final long start = System.nanoTime();
+        mHarness.layout.dispatchTouchEvent(ev);
+        mElapsed += System.nanoTime() - start;
+        ev.recycle();
+    }
+
+    private void frame() {
+        mHarness.advanceClock();
+        final long start = System.nanoTime();
+        mHarness.layout.computeScroll();
+        mElapsed += System.nanoTime() - start;
+    }
+
+    private void settle() {
+        int frames = 0;
+        do {
+            frame();
+        } while (mHarness.getDrawerState() != STATE_IDLE && ++frames < 1000);
+        assertEquals(STATE_IDLE, mHarness.getDrawerState());
+    }
+}
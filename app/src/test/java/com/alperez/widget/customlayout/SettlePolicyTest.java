@@ -0,0 +1,150 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link SideSwipePanelLayout.DefaultSettlePolicy} and
+ * {@link SideSwipePanelLayout.FlingSettlePolicy} on recorded drag traces: the target offset and
+ * the duration each policy chooses for the release, and the time it takes the layout to become
+ * idle after the release.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SettlePolicyTest {
+    private static final float Y = 500;
+    private static final float[] REST_OFFSETS = {0, 1};
+    // Frames the velocity of a trace is measured over, like the VelocityTracker's short history
+    private static final int VELOCITY_FRAMES = 3;
+
+    /**
+     * Pointer x per frame, from the left edge. Recorded at 60 fps and rounded.
+     */
+    private static final class Trace {
+        final String name;
+        final float[] x;
+
+        Trace(String name, float... x) {
+            this.name = name;
+            this.x = x;
+        }
+
+        /**
+         * @return The release velocity, pixels per second
+         */
+        float releaseVelocity() {
+            final int n = x.length - 1;
+            return (x[n] - x[n - VELOCITY_FRAMES]) * 1000 / (VELOCITY_FRAMES * DrawerTestHarness.FRAME_MS);
+        }
+    }
+
+    // A slow drag released in the middle: no fling for the fling policy
+    private static final Trace SLOW = new Trace("slow", 1, 13, 25, 37, 49, 61, 73, 85, 97, 109, 121, 133, 145, 157,
+            169, 181, 193, 205, 217, 229, 241, 253, 265, 277, 289, 301, 313, 325, 337, 349, 361, 373, 385, 397, 409, 421);
+    // A short fast flick from the edge
+    private static final Trace FLICK = new Trace("flick", 1, 40, 100, 170, 240, 300);
+    // A fast fling released past the middle
+    private static final Trace FLING = new Trace("fling", 1, 120, 300, 500, 700);
+    // A fast drag that stops before the release
+    private static final Trace HOLD = new Trace("hold", 1, 80, 200, 330, 450, 560, 620, 640, 642, 642, 642, 642);
+    // A drag past the middle with a flick back at the end
+    private static final Trace BACK = new Trace("back", 1, 60, 150, 260, 380, 500, 600, 680, 720, 700, 650, 590);
+    private static final Trace[] TRACES = {SLOW, FLICK, FLING, HOLD, BACK};
+
+    private SideSwipePanelLayout.SettlePolicy mDefault;
+    private SideSwipePanelLayout.FlingSettlePolicy mFling;
+    private int mDrawerWidth;
+
+    @Before
+    public void setUp() {
+        mDefault = new SideSwipePanelLayout.DefaultSettlePolicy();
+        mFling = new SideSwipePanelLayout.FlingSettlePolicy(RuntimeEnvironment.application);
+        mDrawerWidth = new DrawerTestHarness(Gravity.LEFT).layout().layout.getDrawerView().getWidth();
+    }
+
+    @Test
+    public void targetOffsets() {
+        // Any motion towards a side is a fling for the default policy
+        assertEquals(1f, target(mDefault, SLOW), 0);
+        assertEquals(1f, target(mDefault, FLICK), 0);
+        assertEquals(1f, target(mDefault, FLING), 0);
+        assertEquals(1f, target(mDefault, HOLD), 0);
+        assertEquals(0f, target(mDefault, BACK), 0);
+
+        // The fling policy needs a real fling and projects it
+        assertEquals(0f, target(mFling, SLOW), 0);
+        assertEquals(1f, target(mFling, FLICK), 0);
+        assertEquals(1f, target(mFling, FLING), 0);
+        assertEquals(1f, target(mFling, HOLD), 0);
+        assertEquals(0f, target(mFling, BACK), 0);
+    }
+
+    @Test
+    public void settleDurations() {
+        for (Trace trace : TRACES) {
+            // The default policy leaves the duration to the ViewDragHelper
+            assertEquals(0, duration(mDefault, trace));
+
+            final int duration = duration(mFling, trace);
+            assertTrue(trace.name + ": " + duration + " ms", duration >= 80 && duration <= 280);
+        }
+        // A faster fling settles faster
+        assertTrue(duration(mFling, FLING) < duration(mFling, FLICK));
+    }
+
+    @Test
+    public void timeToIdle() {
+        for (Trace trace : TRACES) {
+            final float[] defaultResult = replay(mDefault, trace);
+            final float[] flingResult = replay(mFling, trace);
+
+            // The default policy always ends at a side
+            assertTrue(trace.name + ": " + defaultResult[1], defaultResult[1] == 0 || defaultResult[1] == 1);
+            // The fling policy settles within its duration limit plus the frame of the release
+            assertTrue(trace.name + ": " + flingResult[0] + " ms", flingResult[0] <= 280 + 2 * DrawerTestHarness.FRAME_MS);
+            assertEquals(trace.name, target(mFling, trace), flingResult[1], 0);
+        }
+    }
+
+    private float target(SideSwipePanelLayout.SettlePolicy policy, Trace trace) {
+        return policy.computeTargetOffset(releaseOffset(trace), trace.releaseVelocity(), mDrawerWidth, REST_OFFSETS);
+    }
+
+    private int duration(SideSwipePanelLayout.SettlePolicy policy, Trace trace) {
+        return policy.computeSettleDuration(releaseOffset(trace), target(policy, trace), trace.releaseVelocity(), mDrawerWidth);
+    }
+
+    private float releaseOffset(Trace trace) {
+        return trace.x[trace.x.length - 1] / mDrawerWidth;
+    }
+
+    /**
+     * Drags a drawer out along the trace, releases it and runs the frames until the layout is idle.
+     *
+     * @return The time from the release to idle in ms and the offset the drawer settled at
+     */
+    private static float[] replay(SideSwipePanelLayout.SettlePolicy policy, Trace trace) {
+        final DrawerTestHarness harness = new DrawerTestHarness(Gravity.LEFT).layout();
+        harness.layout.setSettlePolicy(policy);
+        harness.touch(MotionEvent.ACTION_DOWN, trace.x[0], Y);
+        for (int i = 1; i < trace.x.length; i++) {
+            harness.frame();
+            harness.touch(MotionEvent.ACTION_MOVE, trace.x[i], Y);
+        }
+        harness.touch(MotionEvent.ACTION_UP, trace.x[trace.x.length - 1], Y);
+        final int frames = harness.settle();
+        assertEquals(STATE_IDLE, harness.getDrawerState());
+        return new float[] {frames * DrawerTestHarness.FRAME_MS, harness.layout.getDrawerOffset()};
+    }
+}
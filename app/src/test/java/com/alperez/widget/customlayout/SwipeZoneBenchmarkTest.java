@@ -0,0 +1,97 @@
+package com.alperez.widget.customlayout;
+
+import android.os.SystemClock;
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Measures the cost of {@link SideSwipePanelLayout#onInterceptTouchEvent(MotionEvent)} per
+ * ACTION_MOVE for each kind of swipe zone: the ViewDragHelper edge only, a strip in pixels, a
+ * fraction of the width and the full content. The gesture is a vertical scroll of the content
+ * which starts inside every zone, so the zone has to decide the direction and then let go.
+ *
+ * <p>The results are exported by {@link BenchmarkReport}.</p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SwipeZoneBenchmarkTest {
+    private static final int MOVES = 500;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 100;
+    private static final float X = 300;
+    private static final float Y = 200;
+
+    private DrawerTestHarness mHarness;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+    }
+
+    @Test
+    public void interceptCostPerMove() throws IOException {
+        final BenchmarkReport report = new BenchmarkReport("swipe_zone_intercept");
+
+        mHarness.layout.setSwipeZone(SideSwipePanelLayout.SWIPE_ZONE_EDGE);
+        report.add("edge", measure(), "move");
+
+        mHarness.layout.setSwipeZoneWidth(400);
+        report.add("pixels", measure(), "move");
+
+        mHarness.layout.setSwipeZoneFraction(0.5f);
+        report.add("fraction", measure(), "move");
+
+        mHarness.layout.setSwipeZone(SideSwipePanelLayout.SWIPE_ZONE_FULL);
+        report.add("full", measure(), "move");
+
+        report.write();
+    }
+
+    /**
+     * @return The cost of an intercepted ACTION_MOVE for each round, ns
+     */
+    private long[] measure() {
+        final long[] samples = new long[ROUNDS];
+        for (int round = -WARMUP; round < ROUNDS; round++) {
+            final long time = SystemClock.uptimeMillis();
+            assertFalse(intercept(time, time, MotionEvent.ACTION_DOWN, X, Y));
+            long elapsed = 0;
+            for (int i = 0; i < MOVES; i++) {
+                // A scroll down with a little horizontal jitter
+                final float x = X + ((i % 2 == 0) ? 1 : -1);
+                final MotionEvent ev = MotionEvent.obtain(time, time + (i + 1) * 8, MotionEvent.ACTION_MOVE, x, Y + 3 * (i + 1), 0);
+                final long start = System.nanoTime();
+                final boolean intercepted = mHarness.layout.onInterceptTouchEvent(ev);
+                elapsed += System.nanoTime() - start;
+                ev.recycle();
+                if (intercepted) {
+                    throw new AssertionError("A vertical scroll has been intercepted");
+                }
+            }
+            intercept(time, time + (MOVES + 1) * 8, MotionEvent.ACTION_UP, X, Y + 3 * MOVES);
+            if (round >= 0) {
+                samples[round] = elapsed / MOVES;
+            }
+        }
+        return samples;
+    }
+
+    private boolean intercept(long downTime, long eventTime, int action, float x, float y) {
+        final MotionEvent ev = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        try {
+            return mHarness.layout.onInterceptTouchEvent(ev);
+        } finally {
+            ev.recycle();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.alperez.widget.customlayout;
+
+import android.view.Gravity;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static androidx.customview.widget.ViewDragHelper.STATE_DRAGGING;
+import static androidx.customview.widget.ViewDragHelper.STATE_IDLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Swipes from the swipe zone over a content view which takes no touches, so the gesture is
+ * delivered to {@link SideSwipePanelLayout#onTouchEvent(MotionEvent)} rather than intercepted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SwipeZoneTest {
+    private static final float X = DrawerTestHarness.WIDTH / 2f;
+    private static final float Y = 500;
+    private static final int FRAMES = 10;
+
+    private DrawerTestHarness mHarness;
+
+    @Before
+    public void setUp() {
+        mHarness = new DrawerTestHarness(Gravity.LEFT).layout();
+        assertFalse(mHarness.content.isClickable());
+    }
+
+    @Test
+    public void fullZoneOpensFromContentWithoutTouchHandling() {
+        mHarness.layout.setSwipeZone(SideSwipePanelLayout.SWIPE_ZONE_FULL);
+        swipe(X, Y, X + 400, Y);
+        assertEquals(STATE_DRAGGING, mHarness.getDrawerState());
+        mHarness.touch(MotionEvent.ACTION_UP, X + 400, Y);
+        mHarness.settle();
+        assertEquals(1f, mHarness.layout.getDrawerOffset(), 0);
+    }
+
+    @Test
+    public void fractionZoneOpensFromContentWithoutTouchHandling() {
+        mHarness.layout.setSwipeZoneFraction(0.6f);
+        swipe(X, Y, X + 400, Y);
+        assertEquals(STATE_DRAGGING, mHarness.getDrawerState());
+    }
+
+    @Test
+    public void verticalSwipeDoesNotCapture() {
+        mHarness.layout.setSwipeZone(SideSwipePanelLayout.SWIPE_ZONE_FULL);
+        swipe(X, Y, X + 40, Y + 400);
+        mHarness.touch(MotionEvent.ACTION_UP, X + 40, Y + 400);
+        mHarness.settle();
+        assertEquals(STATE_IDLE, mHarness.getDrawerState());
+        assertEquals(0f, mHarness.layout.getDrawerOffset(), 0);
+    }
+
+    @Test
+    public void swipeOutsideZoneDoesNotCapture() {
+        mHarness.layout.setSwipeZoneWidth(200);
+        swipe(X, Y, X + 400, Y);
+        assertEquals(0f, mHarness.layout.getDrawerOffset(), 0);
+    }
+
+    /**
+     * Moves a pointer down and along, without releasing it.
+     */
+    private void swipe(float fromX, float fromY, float toX, float toY) {
+        mHarness.touch(MotionEvent.ACTION_DOWN, fromX, fromY);
+        for (int i = 1; i <= FRAMES; i++) {
+            mHarness.frame();
+            mHarness.touch(MotionEvent.ACTION_MOVE, fromX + (toX - fromX) * i / FRAMES, fromY + (toY - fromY) * i / FRAMES);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.alperez.widget.customlayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the math the layout runs on every drag frame and on every release.
+ * Each benchmark goes over {@link #SAMPLES} recorded-like inputs, so the branches are not
+ * trivially predicted.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DrawerMathBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final int DRAWER = 1016;
+    private static final int PARENT = 1080;
+    private static final int SCRIM_COLOR = 0x99000000;
+
+    @Param({"true", "false"})
+    public boolean leftEdge;
+
+    private int[] mLefts;
+    private float[] mOffsets;
+    private float[] mVelocities;
+    private float[] mRestOffsets;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        mLefts = new int[SAMPLES];
+        mOffsets = new float[SAMPLES];
+        mVelocities = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            // Positions a little beyond both ends, as the ViewDragHelper proposes them
+            mLefts[i] = DrawerMath.drawerLeftForOffset(random.nextFloat() * 1.2f - 0.1f, DRAWER, PARENT, leftEdge);
+            mOffsets[i] = random.nextFloat();
+            mVelocities[i] = (random.nextFloat() * 2 - 1) * 8000;
+        }
+        mRestOffsets = DrawerMath.buildRestOffsets(new float[] {0.3f}, new int[] {200}, DRAWER);
+    }
+
+    /**
+     * clampViewPositionHorizontal() and onViewPositionChanged(): the clamped position, its offset
+     * and the scrim color.
+     */
+    @Benchmark
+    public void dragFrame(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            final int left = DrawerMath.clampDrawerLeft(mLefts[i], DRAWER, PARENT, leftEdge);
+            final float offset = DrawerMath.offsetForDrawerLeft(left, DRAWER, PARENT, leftEdge);
+            bh.consume(DrawerMath.scrimColor(SCRIM_COLOR, DrawerMath.scrimOpacity(offset, 0)));
+        }
+    }
+
+    /**
+     * onViewReleased() with the fling settle policy, see FlingSettlePolicy.computeTargetOffset().
+     */
+    @Benchmark
+    public void releaseDecision(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(DrawerMath.flingTargetOffset(mOffsets[i], mVelocities[i], 800, 8000, DRAWER, mRestOffsets));
+        }
+    }
+
+    /**
+     * The detent lookup of every dispatched slide.
+     */
+    @Benchmark
+    public void detentIndex(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(DrawerMath.findRestOffsetIndex(mOffsets[i], mRestOffsets, 0.001f, false));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.alperez.widget.customlayout;
+
+import java.util.Arrays;
+
+/**
+ * Pure math of the {@code SideSwipePanelLayout} drawer: positions, offsets, rest offsets and
+ * scrim. It has no Android dependencies and lives in a plain Java module, so it can be tested
+ * and benchmarked on a plain JVM. It is not meant to be used apart from the layout.
+ *
+ * <p>Positions are left coordinates of the drawer in the layout. Offsets are fractions of the
+ * drawer width on the screen, from 0-1. leftEdge is true for a drawer at the left edge.</p>
+ */
+public final class DrawerMath {
+
+    private DrawerMath() {
+    }
+
+    /**
+     * @return The left position of the drawer for the given offset
+     */
+    public static int drawerLeftForOffset(float offset, int drawerWidth, int parentWidth, boolean leftEdge) {
+        return leftEdge
+                ? -drawerWidth + (int) (drawerWidth * offset)
+                : parentWidth - (int) (drawerWidth * offset);
+    }
+
+    /**
+     * @return The offset of the drawer at the given left position. Reverses {@link #drawerLeftForOffset}.
+     */
+    public static float offsetForDrawerLeft(int left, int drawerWidth, int parentWidth, boolean leftEdge) {
+        return leftEdge
+                ? (float) (drawerWidth + left) / drawerWidth
+                : (float) (parentWidth - left) / drawerWidth;
+    }
+
+    /**
+     * @return The left position limited to the range between the closed and the open drawer
+     */
+    public static int clampDrawerLeft(int left, int drawerWidth, int parentWidth, boolean leftEdge) {
+        return leftEdge
+                ? Math.max(-drawerWidth, Math.min(left, 0))
+                : Math.max(parentWidth - drawerWidth, Math.min(left, parentWidth));
+    }
+
+    /**
+     * @return Opacity of the scrim for the given offset. The scrim fades in above the base offset only.
+     */
+    public static float scrimOpacity(float offset, float baseOffset) {
+        return (offset <= baseOffset) ? 0 : (offset - baseOffset) / (1 - baseOffset);
+    }
+
+    /**
+     * @return The scrim color with its alpha scaled by the opacity
+     */
+    public static int scrimColor(int color, float opacity) {
+        final int baseAlpha = (color & 0xff000000) >>> 24;
+        final int imag = (int) (baseAlpha * opacity);
+        return imag << 24 | (color & 0x00ffffff);
+    }
+
+    /**
+     * @return The offset the drawer would reach if it kept decelerating after a release, limited to 0-1
+     */
+    public static float projectOffset(float offset, float velocity, float deceleration, int drawerWidth) {
+        final float distance = velocity * velocity / (2 * deceleration);
+        final float projected = offset + Math.signum(velocity) * distance / drawerWidth;
+        return Math.max(0f, Math.min(projected, 1f));
+    }
+
+    /**
+     * The release decision of a fling: the drawer settles at the rest offset nearest to the
+     * projected position, but never against the direction of the fling. A release slower than
+     * the threshold settles at the nearest rest offset.
+     *
+     * @param velocity Release velocity towards opening, pixels per second
+     * @param velocityThreshold Minimum velocity to be treated as a fling, pixels per second
+     * @param deceleration Deceleration of the projection, pixels per second^2
+     * @return One of the restOffsets
+     */
+    public static float flingTargetOffset(float offset, float velocity, float velocityThreshold, float deceleration,
+                                          int drawerWidth, float[] restOffsets) {
+        if (Math.abs(velocity) < velocityThreshold || drawerWidth <= 0) {
+            return nearestRestOffset(offset, restOffsets);
+        }
+        final float projected = projectOffset(offset, velocity, deceleration, drawerWidth);
+        final float target = nearestRestOffset(projected, restOffsets);
+        if (velocity > 0) {
+            return (target > offset) ? target : nextRestOffset(offset, restOffsets);
+        } else {
+            return (target < offset) ? target : previousRestOffset(offset, restOffsets);
+        }
+    }
+
+    /**
+     * @param distance Distance the finger has moved within the given time
+     * @param timeMs Time of the move, ms
+     * @param horizonMs How far ahead to extrapolate, ms
+     * @param maxDistance Limit of the extrapolated distance in either direction
+     * @return Distance the finger is expected to move within the horizon at its current velocity
+     */
+    public static float extrapolate(float distance, long timeMs, float horizonMs, float maxDistance) {
+        if (timeMs <= 0) return 0;
+        final float predicted = distance * horizonMs / timeMs;
+        return Math.max(-maxDistance, Math.min(predicted, maxDistance));
+    }
+
+    /**
+     * @return The smallest rest offset above the given one, or the last rest offset
+     */
+    public static float nextRestOffset(float offset, float[] restOffsets) {
+        for (float rest : restOffsets) {
+            if (rest > offset) return rest;
+        }
+        return restOffsets[restOffsets.length - 1];
+    }
+
+    /**
+     * @return The biggest rest offset below the given one, or the first rest offset
+     */
+    public static float previousRestOffset(float offset, float[] restOffsets) {
+        for (int i = restOffsets.length - 1; i >= 0; i--) {
+            if (restOffsets[i] < offset) return restOffsets[i];
+        }
+        return restOffsets[0];
+    }
+
+    /**
+     * @return The rest offset closest to the given one. The lower one wins a tie.
+     */
+    public static float nearestRestOffset(float offset, float[] restOffsets) {
+        float nearest = restOffsets[0];
+        for (float rest : restOffsets) {
+            if (Math.abs(rest - offset) < Math.abs(nearest - offset)) {
+                nearest = rest;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @return Sorted unique rest offsets: 0, the detents within (0, 1) and 1. Pixel detents are
+     *         dropped while the drawer width is unknown.
+     */
+    public static float[] buildRestOffsets(float[] fractions, int[] pixels, int drawerWidth) {
+        final float[] offsets = new float[fractions.length + pixels.length + 2];
+        int count = 0;
+        offsets[count++] = 0f;
+        offsets[count++] = 1f;
+        for (float fraction : fractions) {
+            if (fraction > 0 && fraction < 1) offsets[count++] = fraction;
+        }
+        if (drawerWidth > 0) {
+            for (int px : pixels) {
+                final float fraction = (float) px / drawerWidth;
+                if (fraction > 0 && fraction < 1) offsets[count++] = fraction;
+            }
+        }
+        Arrays.sort(offsets, 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i++) {
+            if (offsets[i] != offsets[unique - 1]) offsets[unique++] = offsets[i];
+        }
+        return Arrays.copyOf(offsets, unique);
+    }
+
+    /**
+     * @param tolerance Offsets closer than this to a rest offset match it
+     * @param exact true to get -1 for an offset in between the rest offsets, false to get the
+     *              highest rest offset not above the offset
+     * @return Index of the rest offset
+     */
+    public static int findRestOffsetIndex(float offset, float[] restOffsets, float tolerance, boolean exact) {
+        for (int i = restOffsets.length - 1; i >= 0; i--) {
+            if (restOffsets[i] <= offset + tolerance) {
+                return (exact && offset - restOffsets[i] > tolerance) ? -1 : i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.alperez.widget.customlayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DrawerMathTest {
+    private static final int DRAWER = 800;
+    private static final int PARENT = 1080;
+    private static final float[] REST = {0, 0.25f, 0.5f, 1};
+
+    @Test
+    public void drawerPositionRoundTrip() {
+        for (float offset = 0; offset <= 1; offset += 0.125f) {
+            final int left = DrawerMath.drawerLeftForOffset(offset, DRAWER, PARENT, true);
+            final int right = DrawerMath.drawerLeftForOffset(offset, DRAWER, PARENT, false);
+            assertEquals(offset, DrawerMath.offsetForDrawerLeft(left, DRAWER, PARENT, true), 0.001f);
+            assertEquals(offset, DrawerMath.offsetForDrawerLeft(right, DRAWER, PARENT, false), 0.001f);
+        }
+        assertEquals(-DRAWER, DrawerMath.drawerLeftForOffset(0, DRAWER, PARENT, true));
+        assertEquals(0, DrawerMath.drawerLeftForOffset(1, DRAWER, PARENT, true));
+        assertEquals(PARENT, DrawerMath.drawerLeftForOffset(0, DRAWER, PARENT, false));
+        assertEquals(PARENT - DRAWER, DrawerMath.drawerLeftForOffset(1, DRAWER, PARENT, false));
+    }
+
+    @Test
+    public void clampDrawerLeft() {
+        assertEquals(-DRAWER, DrawerMath.clampDrawerLeft(-2000, DRAWER, PARENT, true));
+        assertEquals(0, DrawerMath.clampDrawerLeft(100, DRAWER, PARENT, true));
+        assertEquals(-300, DrawerMath.clampDrawerLeft(-300, DRAWER, PARENT, true));
+        assertEquals(PARENT - DRAWER, DrawerMath.clampDrawerLeft(0, DRAWER, PARENT, false));
+        assertEquals(PARENT, DrawerMath.clampDrawerLeft(2000, DRAWER, PARENT, false));
+    }
+
+    @Test
+    public void scrim() {
+        assertEquals(0, DrawerMath.scrimOpacity(0.25f, 0.25f), 0);
+        assertEquals(0.5f, DrawerMath.scrimOpacity(0.5f, 0), 0);
+        assertEquals(1, DrawerMath.scrimOpacity(1, 0.25f), 0);
+        assertEquals(0x40123456, DrawerMath.scrimColor(0x80123456, 0.5f));
+        assertEquals(0x00123456, DrawerMath.scrimColor(0x99123456, 0));
+    }
+
+    @Test
+    public void projectOffset() {
+        assertEquals(0.5f, DrawerMath.projectOffset(0.5f, 0, 1000, DRAWER), 0);
+        // 400 px/s with 1000 px/s^2 travels 80 px, a tenth of the drawer
+        assertEquals(0.6f, DrawerMath.projectOffset(0.5f, 400, 1000, DRAWER), 0.001f);
+        assertEquals(0.4f, DrawerMath.projectOffset(0.5f, -400, 1000, DRAWER), 0.001f);
+        assertEquals(1, DrawerMath.projectOffset(0.5f, 5000, 1000, DRAWER), 0);
+        assertEquals(0, DrawerMath.projectOffset(0.5f, -5000, 1000, DRAWER), 0);
+    }
+
+    @Test
+    public void flingTargetOffset() {
+        // Below the threshold: the nearest rest offset
+        assertEquals(0.25f, DrawerMath.flingTargetOffset(0.3f, 500, 800, 8000, DRAWER, REST), 0);
+        // The projection of a strong fling
+        assertEquals(1, DrawerMath.flingTargetOffset(0.3f, 4000, 800, 8000, DRAWER, REST), 0);
+        // A weak fling moves at least to the next rest offset in its direction
+        assertEquals(0.5f, DrawerMath.flingTargetOffset(0.3f, 900, 800, 8000, DRAWER, REST), 0);
+        assertEquals(0.25f, DrawerMath.flingTargetOffset(0.3f, -900, 800, 8000, DRAWER, REST), 0);
+        assertEquals(0, DrawerMath.flingTargetOffset(0.3f, -4000, 800, 8000, DRAWER, REST), 0);
+    }
+
+    @Test
+    public void extrapolate() {
+        assertEquals(0, DrawerMath.extrapolate(10, 0, 8, 100), 0);
+        assertEquals(5, DrawerMath.extrapolate(10, 16, 8, 100), 0);
+        assertEquals(-20, DrawerMath.extrapolate(-100, 16, 8, 20), 0);
+    }
+
+    @Test
+    public void restOffsets() {
+        assertEquals(0.25f, DrawerMath.nextRestOffset(0, REST), 0);
+        assertEquals(1, DrawerMath.nextRestOffset(0.5f, REST), 0);
+        assertEquals(1, DrawerMath.nextRestOffset(1, REST), 0);
+        assertEquals(0.5f, DrawerMath.previousRestOffset(0.75f, REST), 0);
+        assertEquals(0, DrawerMath.previousRestOffset(0, REST), 0);
+        assertEquals(0.25f, DrawerMath.nearestRestOffset(0.3f, REST), 0);
+        assertEquals(0.5f, DrawerMath.nearestRestOffset(0.7f, REST), 0);
+        // The lower one wins a tie
+        assertEquals(0.5f, DrawerMath.nearestRestOffset(0.75f, REST), 0);
+    }
+
+    @Test
+    public void buildRestOffsets() {
+        assertArrayEquals(new float[] {0, 1}, DrawerMath.buildRestOffsets(new float[0], new int[0], DRAWER), 0);
+        assertArrayEquals(REST, DrawerMath.buildRestOffsets(new float[] {0.5f, 0, 1.5f}, new int[] {200, 400}, DRAWER), 0);
+        // Pixel detents wait for the drawer width
+        assertArrayEquals(new float[] {0, 0.5f, 1}, DrawerMath.buildRestOffsets(new float[] {0.5f}, new int[] {200}, 0), 0);
+    }
+
+    @Test
+    public void findRestOffsetIndex() {
+        assertEquals(1, DrawerMath.findRestOffsetIndex(0.25f, REST, 0.001f, true));
+        assertEquals(-1, DrawerMath.findRestOffsetIndex(0.3f, REST, 0.001f, true));
+        assertEquals(1, DrawerMath.findRestOffsetIndex(0.3f, REST, 0.001f, false));
+        assertEquals(3, DrawerMath.findRestOffsetIndex(0.9995f, REST, 0.001f, true));
+        assertEquals(0, DrawerMath.findRestOffsetIndex(0, REST, 0.001f, true));
+    }
+}